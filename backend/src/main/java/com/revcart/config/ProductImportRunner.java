@@ -0,0 +1,39 @@
+package com.revcart.config;
+
+import com.revcart.dto.ImportReport;
+import com.revcart.dto.ImportRowError;
+import com.revcart.service.ProductImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Component
+public class ProductImportRunner implements CommandLineRunner {
+
+    private static final String OPTION = "--import-products=";
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Override
+    public void run(String... args) throws Exception {
+        for (String arg : args) {
+            if (!arg.startsWith(OPTION)) continue;
+            Path file = Path.of(arg.substring(OPTION.length()));
+            System.out.println("[ProductImport] Importing products from " + file);
+            try (InputStream in = Files.newInputStream(file)) {
+                ImportReport report = productImportService.importFile(in, file.getFileName().toString());
+                System.out.printf("[ProductImport] %d rows, %d imported, %d failed in %d ms (%.0f rows/sec)%n",
+                        report.getTotalRows(), report.getImported(), report.getFailed(),
+                        report.getDurationMs(), report.getRowsPerSecond());
+                for (ImportRowError error : report.getErrors()) {
+                    System.out.println("[ProductImport] Row " + error.getRow() + ": " + error.getMessage());
+                }
+            }
+        }
+    }
+}
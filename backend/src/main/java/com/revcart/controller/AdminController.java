@@ -1,17 +1,30 @@
 package com.revcart.controller;
 
+import com.revcart.dto.ImportReport;
 import com.revcart.entity.Order;
 import com.revcart.entity.Product;
 import com.revcart.entity.User;
 import com.revcart.repository.OrderRepository;
 import com.revcart.repository.ProductRepository;
 import com.revcart.repository.UserRepository;
+import com.revcart.service.CartReaper;
+import com.revcart.service.CartService;
+import com.revcart.service.InventoryService;
+import com.revcart.service.OrderExpiryScheduler;
+import com.revcart.service.OrderScanEngine;
+import com.revcart.service.OrderService;
+import com.revcart.service.OutboxService;
+import com.revcart.service.ProductImportService;
+import com.revcart.service.ProductService;
+import com.revcart.service.SalesRollupService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +42,36 @@ public class AdminController {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartReaper cartReaper;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderExpiryScheduler orderExpiryScheduler;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderScanEngine orderScanEngine;
+
     @GetMapping("/users")
     public ResponseEntity<?> getAllUsers() {
         try {
@@ -42,7 +85,7 @@ public class AdminController {
     @PostMapping("/products")
     public ResponseEntity<?> addProduct(@Valid @RequestBody Product product) {
         try {
-            Product savedProduct = productRepository.save(product);
+            Product savedProduct = productService.createProduct(product);
             return ResponseEntity.ok(Map.of("message", "Product added successfully", "product", savedProduct));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", "Error adding product"));
@@ -52,28 +95,29 @@ public class AdminController {
     @PutMapping("/products/{productId}")
     public ResponseEntity<?> updateProduct(@PathVariable Long productId, @Valid @RequestBody Product productUpdate) {
         try {
-            Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-            
-            product.setName(productUpdate.getName());
-            product.setCategory(productUpdate.getCategory());
-            product.setPrice(productUpdate.getPrice());
-            product.setUnit(productUpdate.getUnit());
-            product.setImage(productUpdate.getImage());
-            product.setDescription(productUpdate.getDescription());
-            product.setStockQuantity(productUpdate.getStockQuantity());
-            
-            Product savedProduct = productRepository.save(product);
+            Product savedProduct = productService.updateProduct(productId, productUpdate);
             return ResponseEntity.ok(Map.of("message", "Product updated successfully", "product", savedProduct));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", "Error updating product"));
         }
     }
 
+    @PostMapping("/products/import")
+    public ResponseEntity<?> importProducts(@RequestParam("file") MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            ImportReport report = productImportService.importFile(in, file.getOriginalFilename());
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error importing products: " + e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/products/{productId}")
     public ResponseEntity<?> deleteProduct(@PathVariable Long productId) {
         try {
-            productRepository.deleteById(productId);
+            productService.deleteProduct(productId);
             return ResponseEntity.ok(Map.of("message", "Product deleted successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", "Error deleting product"));
@@ -93,11 +137,7 @@ public class AdminController {
     @PutMapping("/orders/{orderId}/status")
     public ResponseEntity<?> updateOrderStatus(@PathVariable Long orderId, @RequestParam Order.OrderStatus status) {
         try {
-            Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-            
-            order.setStatus(status);
-            Order savedOrder = orderRepository.save(order);
+            Order savedOrder = orderService.updateOrderStatus(orderId, status);
             
             return ResponseEntity.ok(Map.of("message", "Order status updated", "order", savedOrder));
         } catch (Exception e) {
@@ -105,13 +145,68 @@ public class AdminController {
         }
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    @GetMapping("/cart/stats")
+    public ResponseEntity<?> getCartStoreStats() {
+        return ResponseEntity.ok(cartService.getStoreStats());
+    }
+
+    @GetMapping("/cart/reaper/stats")
+    public ResponseEntity<?> getCartReaperStats() {
+        return ResponseEntity.ok(cartReaper.stats());
+    }
+
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<?> getOutboxStats() {
+        return ResponseEntity.ok(outboxService.stats());
+    }
+
+    @PostMapping("/outbox/dead/retry")
+    public ResponseEntity<?> retryDeadOutboxEvents() {
+        return ResponseEntity.ok(Map.of("revived", outboxService.reviveDead()));
+    }
+
+    @GetMapping("/inventory/stats")
+    public ResponseEntity<?> getInventoryStats() {
+        return ResponseEntity.ok(inventoryService.stats());
+    }
+
+    @GetMapping("/orders/expiry/stats")
+    public ResponseEntity<?> getOrderExpiryStats() {
+        return ResponseEntity.ok(orderExpiryScheduler.stats());
+    }
+
+    @GetMapping("/analytics/rollups/stats")
+    public ResponseEntity<?> getSalesRollupStats() {
+        return ResponseEntity.ok(salesRollupService.stats());
+    }
+
+    @GetMapping("/analytics/scan/stats")
+    public ResponseEntity<?> getOrderScanStats() {
+        return ResponseEntity.ok(orderScanEngine.stats());
+    }
+
+    @PostMapping("/analytics/rollups/backfill")
+    public ResponseEntity<?> backfillSalesRollups() {
+        try {
+            int buckets = salesRollupService.backfill();
+            return ResponseEntity.ok(Map.of("message", "Sales rollups rebuilt", "buckets", buckets));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error rebuilding sales rollups"));
+        }
+    }
+
     @GetMapping("/dashboard")
     public ResponseEntity<?> getDashboardStats() {
         try {
             long totalUsers = userRepository.count();
             long totalProducts = productRepository.count();
             long totalOrders = orderRepository.count();
-            long pendingOrders = orderRepository.findByStatusOrderByOrderDateDesc(Order.OrderStatus.PENDING).size();
+            long pendingOrders = salesRollupService.total().count(Order.OrderStatus.PENDING);
             
             return ResponseEntity.ok(Map.of(
                 "totalUsers", totalUsers,
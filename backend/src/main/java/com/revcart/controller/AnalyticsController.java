@@ -37,6 +37,25 @@ public class AnalyticsController {
         }
     }
 
+    @GetMapping("/report")
+    public ResponseEntity<?> getSalesReport() {
+        try {
+            return ResponseEntity.ok(Map.of("success", true, "data", analyticsService.getSalesReport()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrending(@RequestParam(defaultValue = "24h") String window,
+                                         @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(Map.of("success", true, "data", analyticsService.getTrending(window, limit)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
     @GetMapping("/users")
     public ResponseEntity<?> getUserAnalytics() {
         try {
@@ -50,8 +69,10 @@ public class AnalyticsController {
     @PostMapping("/update-analytics")
     public ResponseEntity<?> updateAnalytics() {
         try {
-            mongoAnalyticsService.updateAnalytics();
-            return ResponseEntity.ok(Map.of("success", true, "message", "Analytics updated successfully"));
+            if (!mongoAnalyticsService.startRebuild()) {
+                return ResponseEntity.ok(Map.of("success", true, "message", "Analytics rebuild already running"));
+            }
+            return ResponseEntity.ok(Map.of("success", true, "message", "Analytics rebuild started"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
         }
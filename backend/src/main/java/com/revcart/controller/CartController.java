@@ -1,5 +1,6 @@
 package com.revcart.controller;
 
+import com.revcart.dto.CartBatchRequest;
 import com.revcart.dto.CartItemRequest;
 import com.revcart.entity.Cart;
 import com.revcart.entity.CartItem;
@@ -45,7 +46,7 @@ public class CartController {
                     ));
                 }
             }
-            return ResponseEntity.ok(Map.of("cartItems", cartItems));
+            return ResponseEntity.ok(Map.of("cartItems", cartItems, "totals", cart.getTotals()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", "Error fetching cart"));
         }
@@ -63,6 +64,20 @@ public class CartController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(@Valid @RequestBody CartBatchRequest request,
+                                        Authentication authentication) {
+        try {
+            User user = getUserFromAuthentication(authentication);
+            Cart cart = cartService.applyMutations(user, request.getMutations());
+            return ResponseEntity.ok(Map.of("message", "Cart updated", "cart", cart));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error updating cart"));
+        }
+    }
+
     @PutMapping("/update")
     public ResponseEntity<?> updateCartItem(@Valid @RequestBody CartItemRequest request,
                                            Authentication authentication) {
@@ -87,6 +102,29 @@ public class CartController {
         }
     }
 
+    @PostMapping("/coupon")
+    public ResponseEntity<?> applyCoupon(@RequestBody Map<String, String> request,
+                                         Authentication authentication) {
+        try {
+            User user = getUserFromAuthentication(authentication);
+            Cart cart = cartService.applyCoupon(user, request.get("code"));
+            return ResponseEntity.ok(Map.of("message", "Coupon applied", "totals", cart.getTotals()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/coupon")
+    public ResponseEntity<?> removeCoupon(Authentication authentication) {
+        try {
+            User user = getUserFromAuthentication(authentication);
+            Cart cart = cartService.removeCoupon(user);
+            return ResponseEntity.ok(Map.of("message", "Coupon removed", "totals", cart.getTotals()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error removing coupon"));
+        }
+    }
+
     @DeleteMapping("/clear")
     public ResponseEntity<?> clearCart(Authentication authentication) {
         try {
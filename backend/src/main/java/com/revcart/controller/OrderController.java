@@ -4,6 +4,7 @@ import com.revcart.dto.OrderRequest;
 import com.revcart.entity.Order;
 import com.revcart.entity.User;
 import com.revcart.repository.UserRepository;
+import com.revcart.service.IdempotencyService;
 import com.revcart.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,17 +27,23 @@ public class OrderController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping
     public ResponseEntity<?> createOrder(@RequestParam String deliveryAddress,
                                         @RequestParam String phoneNumber,
+                                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                         Authentication authentication) {
-        try {
-            User user = getUserFromAuthentication(authentication);
-            Order order = orderService.createOrder(user, deliveryAddress, phoneNumber);
-            return ResponseEntity.ok(Map.of("message", "Order created successfully", "order", order));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
-        }
+        return idempotencyService.execute("order:create", principal(authentication), idempotencyKey, () -> {
+            try {
+                User user = getUserFromAuthentication(authentication);
+                Order order = orderService.createOrder(user, deliveryAddress, phoneNumber);
+                return ResponseEntity.ok(Map.of("message", "Order created successfully", "order", order));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+            }
+        });
     }
 
     @GetMapping
@@ -56,6 +63,23 @@ public class OrderController {
         }
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<?> getUserOrderPage(@RequestParam(defaultValue = "20") int limit,
+                                              @RequestParam(required = false) String cursor,
+                                              Authentication authentication) {
+        try {
+            if (authentication == null) {
+                return ResponseEntity.status(401).body(Map.of("message", "Not authenticated"));
+            }
+            User user = getUserFromAuthentication(authentication);
+            return ResponseEntity.ok(orderService.getUserOrderPage(user, limit, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error fetching orders"));
+        }
+    }
+
     @GetMapping("/{orderId}")
     public ResponseEntity<?> getOrder(@PathVariable Long orderId, Authentication authentication) {
         try {
@@ -130,4 +154,8 @@ public class OrderController {
         return userRepository.findByEmail(email)
             .orElseThrow(() -> new RuntimeException("User not found"));
     }
+
+    private String principal(Authentication authentication) {
+        return authentication == null ? "anonymous" : authentication.getName();
+    }
 }
@@ -4,6 +4,7 @@ import com.revcart.entity.Order;
 import com.revcart.entity.Payment;
 import com.revcart.entity.User;
 import com.revcart.repository.UserRepository;
+import com.revcart.service.IdempotencyService;
 import com.revcart.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -22,10 +23,19 @@ public class PaymentController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping
     public ResponseEntity<?> createPayment(@RequestParam Long orderId,
                                           @RequestParam String method,
+                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                           Authentication authentication) {
+        return idempotencyService.execute("payment:create", principal(authentication), idempotencyKey,
+            () -> doCreatePayment(orderId, method));
+    }
+
+    private ResponseEntity<?> doCreatePayment(Long orderId, String method) {
         try {
             if (orderId == null || method == null) {
                 return ResponseEntity.badRequest().body(Map.of("message", "Order ID and payment method are required"));
@@ -50,13 +60,17 @@ public class PaymentController {
     }
 
     @PostMapping("/{paymentId}/process")
-    public ResponseEntity<?> processPayment(@PathVariable Long paymentId) {
-        try {
-            Payment payment = paymentService.processPayment(paymentId);
-            return ResponseEntity.ok(Map.of("message", "Payment processed successfully", "payment", payment));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
-        }
+    public ResponseEntity<?> processPayment(@PathVariable Long paymentId,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                           Authentication authentication) {
+        return idempotencyService.execute("payment:process:" + paymentId, principal(authentication), idempotencyKey, () -> {
+            try {
+                Payment payment = paymentService.processPayment(paymentId);
+                return ResponseEntity.ok(Map.of("message", "Payment processed successfully", "payment", payment));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+            }
+        });
     }
 
     @PostMapping("/{paymentId}/fail")
@@ -71,13 +85,17 @@ public class PaymentController {
     }
 
     @PostMapping("/{paymentId}/refund")
-    public ResponseEntity<?> refundPayment(@PathVariable Long paymentId) {
-        try {
-            Payment payment = paymentService.refundPayment(paymentId);
-            return ResponseEntity.ok(Map.of("message", "Refund processed", "payment", payment));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
-        }
+    public ResponseEntity<?> refundPayment(@PathVariable Long paymentId,
+                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                          Authentication authentication) {
+        return idempotencyService.execute("payment:refund:" + paymentId, principal(authentication), idempotencyKey, () -> {
+            try {
+                Payment payment = paymentService.refundPayment(paymentId);
+                return ResponseEntity.ok(Map.of("message", "Refund processed", "payment", payment));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+            }
+        });
     }
 
     private User getUserFromAuthentication(Authentication authentication) {
@@ -85,4 +103,8 @@ public class PaymentController {
         return userRepository.findByEmail(email)
             .orElseThrow(() -> new RuntimeException("User not found"));
     }
+
+    private String principal(Authentication authentication) {
+        return authentication == null ? "anonymous" : authentication.getName();
+    }
 }
@@ -1,12 +1,15 @@
 package com.revcart.controller;
 
+import com.revcart.dto.CategorySummary;
 import com.revcart.dto.ProductRequest;
 import com.revcart.entity.Product;
+import com.revcart.service.CatalogVersion;
 import com.revcart.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -21,17 +24,42 @@ public class ProductController {
     private ProductService productService;
 
     @GetMapping
-    public List<Product> getAllProducts() {
+    public List<Product> getAllProducts(WebRequest request) {
+        if (notModified(request, productService.getCatalogVersion())) {
+            return null;
+        }
         return productService.getAllProducts();
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<?> listProducts(
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (notModified(request, productService.getCatalogVersion())) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(productService.listProducts(sort, limit, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request) {
+        if (notModified(request, productService.getProductVersion(id))) {
+            return null;
+        }
         return productService.getProductById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/category/{category}")
-    public List<Product> getProductsByCategory(@PathVariable String category) {
+    public List<Product> getProductsByCategory(@PathVariable String category, WebRequest request) {
+        if (notModified(request, productService.getCatalogVersion())) {
+            return null;
+        }
         return productService.getProductsByCategory(category);
     }
 
@@ -41,10 +69,21 @@ public class ProductController {
     }
 
     @GetMapping("/categories")
-    public List<String> getAllCategories() {
+    public List<String> getAllCategories(WebRequest request) {
+        if (notModified(request, productService.getCatalogVersion())) {
+            return null;
+        }
         return productService.getAllCategories();
     }
 
+    @GetMapping("/categories/summary")
+    public List<CategorySummary> getCategorySummaries(WebRequest request) {
+        if (notModified(request, productService.getCatalogVersion())) {
+            return null;
+        }
+        return productService.getCategorySummaries();
+    }
+
     @PostMapping
     public ResponseEntity<?> createProduct(@Valid @RequestBody ProductRequest request) {
         try {
@@ -67,16 +106,17 @@ public class ProductController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductRequest request) {
         try {
-            Product product = productService.getProductById(id)
+            Product existing = productService.getProductById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
             
+            Product product = new Product();
             product.setName(request.getName());
             product.setDescription(request.getDescription());
             product.setPrice(new BigDecimal(request.getPrice()));
             product.setCategory(request.getCategory());
             product.setStockQuantity(request.getStockQuantity());
-            if (request.getImage() != null) product.setImage(request.getImage());
-            if (request.getUnit() != null) product.setUnit(request.getUnit());
+            product.setImage(request.getImage() != null ? request.getImage() : existing.getImage());
+            product.setUnit(request.getUnit() != null ? request.getUnit() : existing.getUnit());
             
             Product updated = productService.updateProduct(id, product);
             return ResponseEntity.ok(Map.of("message", "Product updated successfully", "product", updated));
@@ -94,4 +134,8 @@ public class ProductController {
             return ResponseEntity.badRequest().body(Map.of("message", "Error deleting product: " + e.getMessage()));
         }
     }
+
+    private boolean notModified(WebRequest request, CatalogVersion.Stamp version) {
+        return request.checkNotModified(version.getEtag(), version.getLastModified());
+    }
 }
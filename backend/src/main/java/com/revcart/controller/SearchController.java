@@ -1,5 +1,8 @@
 package com.revcart.controller;
 
+import com.revcart.dto.FacetedSearchResult;
+import com.revcart.dto.SearchPage;
+import com.revcart.dto.Suggestion;
 import com.revcart.entity.Product;
 import com.revcart.service.SearchService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +29,45 @@ public class SearchController {
         }
     }
 
+    @GetMapping("/ranked")
+    public ResponseEntity<?> rankedSearch(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            SearchPage page = searchService.rankedSearch(query, limit, cursor);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error searching products"));
+        }
+    }
+
+    @GetMapping("/fuzzy")
+    public ResponseEntity<?> fuzzySearch(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<Product> products = searchService.fuzzySearch(query, limit);
+            return ResponseEntity.ok(products);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error searching products"));
+        }
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        try {
+            List<Suggestion> suggestions = searchService.suggest(prefix, limit);
+            return ResponseEntity.ok(suggestions);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error fetching suggestions"));
+        }
+    }
+
     @GetMapping("/filter")
     public ResponseEntity<?> advancedSearch(
             @RequestParam(required = false) String query,
@@ -40,6 +82,20 @@ public class SearchController {
         }
     }
 
+    @GetMapping("/faceted")
+    public ResponseEntity<?> facetedSearch(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String category) {
+        try {
+            FacetedSearchResult result = searchService.facetedSearch(query, minPrice, maxPrice, category);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error filtering products"));
+        }
+    }
+
     @GetMapping("/trending")
     public ResponseEntity<?> getTrendingProducts() {
         try {
@@ -2,6 +2,8 @@ package com.revcart.document;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import java.math.BigDecimal;
 
 @Document(collection = "order_analytics")
@@ -12,6 +14,7 @@ public class OrderAnalytics {
     private String productName;
     private String category;
     private Integer purchaseCount;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal totalRevenue;
     private Long lastUpdated;
 
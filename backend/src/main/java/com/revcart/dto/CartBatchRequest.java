@@ -0,0 +1,21 @@
+package com.revcart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class CartBatchRequest {
+    @NotEmpty
+    @Size(max = 200)
+    private List<@Valid CartMutationRequest> mutations;
+
+    public CartBatchRequest() {}
+
+    public CartBatchRequest(List<CartMutationRequest> mutations) {
+        this.mutations = mutations;
+    }
+
+    public List<CartMutationRequest> getMutations() { return mutations; }
+    public void setMutations(List<CartMutationRequest> mutations) { this.mutations = mutations; }
+}
@@ -0,0 +1,31 @@
+package com.revcart.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public class CartMutationRequest {
+    @NotNull
+    private Long productId;
+
+    private Integer quantity;
+
+    @NotBlank
+    private String op;
+
+    public CartMutationRequest() {}
+
+    public CartMutationRequest(Long productId, Integer quantity, String op) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.op = op;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+}
@@ -0,0 +1,36 @@
+package com.revcart.dto;
+
+import java.math.BigDecimal;
+
+public class CartTotals {
+    private BigDecimal subtotal;
+    private BigDecimal discount;
+    private BigDecimal total;
+    private int itemCount;
+    private String couponCode;
+
+    public CartTotals() {}
+
+    public CartTotals(BigDecimal subtotal, BigDecimal discount, BigDecimal total, int itemCount, String couponCode) {
+        this.subtotal = subtotal;
+        this.discount = discount;
+        this.total = total;
+        this.itemCount = itemCount;
+        this.couponCode = couponCode;
+    }
+
+    public BigDecimal getSubtotal() { return subtotal; }
+    public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
+
+    public BigDecimal getDiscount() { return discount; }
+    public void setDiscount(BigDecimal discount) { this.discount = discount; }
+
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+
+    public String getCouponCode() { return couponCode; }
+    public void setCouponCode(String couponCode) { this.couponCode = couponCode; }
+}
@@ -0,0 +1,31 @@
+package com.revcart.dto;
+
+import java.math.BigDecimal;
+
+public class CategorySummary {
+    private String name;
+    private int productCount;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    public CategorySummary() {}
+
+    public CategorySummary(String name, int productCount, BigDecimal minPrice, BigDecimal maxPrice) {
+        this.name = name;
+        this.productCount = productCount;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public int getProductCount() { return productCount; }
+    public void setProductCount(int productCount) { this.productCount = productCount; }
+
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+}
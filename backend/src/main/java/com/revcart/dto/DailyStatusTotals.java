@@ -0,0 +1,34 @@
+package com.revcart.dto;
+
+import com.revcart.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class DailyStatusTotals {
+    private LocalDate day;
+    private Order.OrderStatus status;
+    private long orders;
+    private BigDecimal revenue;
+
+    public DailyStatusTotals() {}
+
+    public DailyStatusTotals(LocalDate day, Order.OrderStatus status, Long orders, BigDecimal revenue) {
+        this.day = day;
+        this.status = status;
+        this.orders = orders == null ? 0 : orders;
+        this.revenue = revenue == null ? BigDecimal.ZERO : revenue;
+    }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public long getOrders() { return orders; }
+    public void setOrders(long orders) { this.orders = orders; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+}
@@ -0,0 +1,23 @@
+package com.revcart.dto;
+
+import com.revcart.entity.Product;
+import java.util.List;
+import java.util.Map;
+
+public class FacetedSearchResult {
+    private List<Product> items;
+    private Map<String, Integer> categoryCounts;
+
+    public FacetedSearchResult() {}
+
+    public FacetedSearchResult(List<Product> items, Map<String, Integer> categoryCounts) {
+        this.items = items;
+        this.categoryCounts = categoryCounts;
+    }
+
+    public List<Product> getItems() { return items; }
+    public void setItems(List<Product> items) { this.items = items; }
+
+    public Map<String, Integer> getCategoryCounts() { return categoryCounts; }
+    public void setCategoryCounts(Map<String, Integer> categoryCounts) { this.categoryCounts = categoryCounts; }
+}
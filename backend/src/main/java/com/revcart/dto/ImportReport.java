@@ -0,0 +1,41 @@
+package com.revcart.dto;
+
+import java.util.List;
+
+public class ImportReport {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private long durationMs;
+    private double rowsPerSecond;
+    private List<ImportRowError> errors;
+
+    public ImportReport() {}
+
+    public ImportReport(long totalRows, long imported, long failed, long durationMs, List<ImportRowError> errors) {
+        this.totalRows = totalRows;
+        this.imported = imported;
+        this.failed = failed;
+        this.durationMs = durationMs;
+        this.rowsPerSecond = durationMs == 0 ? imported : imported * 1000.0 / durationMs;
+        this.errors = errors;
+    }
+
+    public long getTotalRows() { return totalRows; }
+    public void setTotalRows(long totalRows) { this.totalRows = totalRows; }
+
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    public List<ImportRowError> getErrors() { return errors; }
+    public void setErrors(List<ImportRowError> errors) { this.errors = errors; }
+}
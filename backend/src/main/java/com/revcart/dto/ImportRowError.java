@@ -0,0 +1,19 @@
+package com.revcart.dto;
+
+public class ImportRowError {
+    private long row;
+    private String message;
+
+    public ImportRowError() {}
+
+    public ImportRowError(long row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    public long getRow() { return row; }
+    public void setRow(long row) { this.row = row; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
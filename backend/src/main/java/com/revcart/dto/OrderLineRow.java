@@ -0,0 +1,60 @@
+package com.revcart.dto;
+
+import com.revcart.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class OrderLineRow {
+    private Long orderId;
+    private LocalDateTime orderDate;
+    private Order.OrderStatus status;
+    private BigDecimal totalAmount;
+    private Long productId;
+    private String productName;
+    private String category;
+    private Integer quantity;
+    private BigDecimal price;
+
+    public OrderLineRow() {}
+
+    public OrderLineRow(Long orderId, LocalDateTime orderDate, Order.OrderStatus status, BigDecimal totalAmount,
+                        Long productId, String productName, String category, Integer quantity, BigDecimal price) {
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.productId = productId;
+        this.productName = productName;
+        this.category = category;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+}
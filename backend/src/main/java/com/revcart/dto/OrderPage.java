@@ -0,0 +1,21 @@
+package com.revcart.dto;
+
+import java.util.List;
+
+public class OrderPage {
+    private List<OrderSummary> items;
+    private String nextCursor;
+
+    public OrderPage() {}
+
+    public OrderPage(List<OrderSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OrderSummary> getItems() { return items; }
+    public void setItems(List<OrderSummary> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
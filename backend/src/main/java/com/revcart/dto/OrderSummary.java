@@ -0,0 +1,39 @@
+package com.revcart.dto;
+
+import com.revcart.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class OrderSummary {
+    private Long id;
+    private LocalDateTime orderDate;
+    private Order.OrderStatus status;
+    private BigDecimal totalAmount;
+    private long itemCount;
+
+    public OrderSummary() {}
+
+    public OrderSummary(Long id, LocalDateTime orderDate, Order.OrderStatus status, BigDecimal totalAmount, Long itemCount) {
+        this.id = id;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.itemCount = itemCount == null ? 0 : itemCount;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public long getItemCount() { return itemCount; }
+    public void setItemCount(long itemCount) { this.itemCount = itemCount; }
+}
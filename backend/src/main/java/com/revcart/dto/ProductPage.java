@@ -0,0 +1,21 @@
+package com.revcart.dto;
+
+import java.util.List;
+
+public class ProductPage {
+    private List<ProductCard> items;
+    private String nextCursor;
+
+    public ProductPage() {}
+
+    public ProductPage(List<ProductCard> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductCard> getItems() { return items; }
+    public void setItems(List<ProductCard> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,27 @@
+package com.revcart.dto;
+
+import com.revcart.entity.Product;
+import java.util.List;
+
+public class SearchPage {
+    private List<Product> items;
+    private int totalHits;
+    private String nextCursor;
+
+    public SearchPage() {}
+
+    public SearchPage(List<Product> items, int totalHits, String nextCursor) {
+        this.items = items;
+        this.totalHits = totalHits;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Product> getItems() { return items; }
+    public void setItems(List<Product> items) { this.items = items; }
+
+    public int getTotalHits() { return totalHits; }
+    public void setTotalHits(int totalHits) { this.totalHits = totalHits; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,28 @@
+package com.revcart.dto;
+
+import com.revcart.entity.Order;
+
+import java.math.BigDecimal;
+
+public class StatusTotals {
+    private Order.OrderStatus status;
+    private long orders;
+    private BigDecimal revenue;
+
+    public StatusTotals() {}
+
+    public StatusTotals(Order.OrderStatus status, Long orders, BigDecimal revenue) {
+        this.status = status;
+        this.orders = orders == null ? 0 : orders;
+        this.revenue = revenue == null ? BigDecimal.ZERO : revenue;
+    }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public long getOrders() { return orders; }
+    public void setOrders(long orders) { this.orders = orders; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+}
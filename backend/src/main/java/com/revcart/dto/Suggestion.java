@@ -0,0 +1,19 @@
+package com.revcart.dto;
+
+public class Suggestion {
+    private String text;
+    private String type;
+
+    public Suggestion() {}
+
+    public Suggestion(String text, String type) {
+        this.text = text;
+        this.type = type;
+    }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+}
@@ -1,23 +1,31 @@
 package com.revcart.entity;
 
+import com.revcart.dto.CartTotals;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
-@Table(name = "carts")
+@Table(name = "carts", indexes = @Index(name = "idx_carts_updated_at_id", columnList = "updated_at, id"))
+@NamedEntityGraph(name = Cart.GRAPH_CHECKOUT,
+    attributeNodes = @NamedAttributeNode(value = "cartItems", subgraph = "items"),
+    subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
 @JsonIgnoreProperties(ignoreUnknown = true, value = {"hibernateLazyInitializer", "handler"})
 public class Cart {
+    public static final String GRAPH_CHECKOUT = "Cart.checkout";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private List<CartItem> cartItems;
 
     @Column(name = "created_at")
@@ -26,6 +34,12 @@ public class Cart {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    @Column(name = "coupon_code")
+    private String couponCode;
+
+    @Transient
+    private CartTotals totals;
+
     // Constructors
     public Cart() {}
 
@@ -46,6 +60,12 @@ public class Cart {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
+    public String getCouponCode() { return couponCode; }
+    public void setCouponCode(String couponCode) { this.couponCode = couponCode; }
+
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
-}
\ No newline at end of file
+
+    public CartTotals getTotals() { return totals; }
+    public void setTotals(CartTotals totals) { this.totals = totals; }
+}
@@ -5,16 +5,24 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_user_date_id", columnList = "user_id, order_date, id"))
+@NamedEntityGraph(name = Order.GRAPH_DETAIL,
+    attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode(value = "orderItems", subgraph = "items")},
+    subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
+@NamedEntityGraph(name = Order.GRAPH_WITH_USER, attributeNodes = @NamedAttributeNode("user"))
 @JsonIgnoreProperties(ignoreUnknown = true, value = {"hibernateLazyInitializer", "handler"})
 public class Order {
+    public static final String GRAPH_DETAIL = "Order.detail";
+    public static final String GRAPH_WITH_USER = "Order.withUser";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -33,7 +41,12 @@ public class Order {
     @Column(name = "order_date")
     private LocalDateTime orderDate = LocalDateTime.now();
 
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    // Only orders placed through the reserving checkout hold stock; older rows default to false and release nothing.
+    @Column(name = "stock_reserved", nullable = false, columnDefinition = "boolean default false")
+    private boolean stockReserved;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private List<OrderItem> orderItems;
 
     public enum OrderStatus {
@@ -72,6 +85,9 @@ public class Order {
     public LocalDateTime getOrderDate() { return orderDate; }
     public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
 
+    public boolean isStockReserved() { return stockReserved; }
+    public void setStockReserved(boolean stockReserved) { this.stockReserved = stockReserved; }
+
     public List<OrderItem> getOrderItems() { return orderItems; }
     public void setOrderItems(List<OrderItem> orderItems) { this.orderItems = orderItems; }
 }
\ No newline at end of file
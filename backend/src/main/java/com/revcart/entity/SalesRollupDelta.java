@@ -0,0 +1,43 @@
+package com.revcart.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Append-only log of rollup changes, written in the order's own transaction and folded into sales_rollups by the flusher.
+@Entity
+@Table(name = "sales_rollup_deltas")
+public class SalesRollupDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_day", nullable = false)
+    private LocalDate bucketDay;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Order.OrderStatus status;
+
+    @Column(name = "order_delta", nullable = false)
+    private long orderDelta;
+
+    @Column(name = "revenue_delta", nullable = false)
+    private long revenueDelta;
+
+    public SalesRollupDelta() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getBucketDay() { return bucketDay; }
+    public void setBucketDay(LocalDate bucketDay) { this.bucketDay = bucketDay; }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public long getOrderDelta() { return orderDelta; }
+    public void setOrderDelta(long orderDelta) { this.orderDelta = orderDelta; }
+
+    public long getRevenueDelta() { return revenueDelta; }
+    public void setRevenueDelta(long revenueDelta) { this.revenueDelta = revenueDelta; }
+}
@@ -13,14 +13,16 @@ public interface OrderAnalyticsRepository extends MongoRepository<OrderAnalytics
     
     @Aggregation(pipeline = {
         "{ $sort: { purchaseCount: -1 } }",
-        "{ $limit: 10 }"
+        "{ $limit: 10 }",
+        "{ $project: { recentOrders: 0 } }"
     })
     List<OrderAnalytics> findTopPurchasedItems();
     
     @Aggregation(pipeline = {
         "{ $match: { category: ?0 } }",
         "{ $sort: { purchaseCount: -1 } }",
-        "{ $limit: 5 }"
+        "{ $limit: 5 }",
+        "{ $project: { recentOrders: 0 } }"
     })
     List<OrderAnalytics> findTopItemsByCategory(String category);
     
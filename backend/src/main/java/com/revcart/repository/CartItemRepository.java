@@ -4,7 +4,10 @@ import com.revcart.entity.Cart;
 import com.revcart.entity.CartItem;
 import com.revcart.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +18,9 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @org.springframework.data.jpa.repository.Modifying
     @org.springframework.data.jpa.repository.Query("DELETE FROM CartItem")
     void deleteAllCartItems();
-}
\ No newline at end of file
+
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("DELETE FROM CartItem ci WHERE ci.cart.id IN " +
+        "(SELECT c.id FROM Cart c WHERE c.id IN :ids AND c.updatedAt < :cutoff)")
+    int deleteItemsOfIdleCarts(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+}
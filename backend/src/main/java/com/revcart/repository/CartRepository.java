@@ -2,11 +2,28 @@ package com.revcart.repository;
 
 import com.revcart.entity.Cart;
 import com.revcart.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUser(User user);
-}
\ No newline at end of file
+    @EntityGraph(Cart.GRAPH_CHECKOUT)
+    Optional<Cart> findByUserId(Long userId);
+
+    @Query("SELECT c.id, c.user.id FROM Cart c WHERE c.updatedAt < :cutoff AND c.id > :afterId ORDER BY c.id")
+    List<Object[]> findIdleCarts(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.id IN :ids AND c.updatedAt < :cutoff")
+    int deleteIdleCarts(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,10 +2,19 @@ package com.revcart.repository;
 
 import com.revcart.entity.Coupon;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
 public interface CouponRepository extends JpaRepository<Coupon, Long> {
     Optional<Coupon> findByCode(String code);
+
+    // Checks and counts the use in one statement, so concurrent checkouts cannot push a coupon past maxUses.
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usedCount = c.usedCount + 1 WHERE c.code = :code AND c.active = true " +
+           "AND (c.maxUses IS NULL OR c.usedCount < c.maxUses)")
+    int consume(@Param("code") String code);
 }
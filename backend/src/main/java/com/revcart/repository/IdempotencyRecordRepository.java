@@ -0,0 +1,35 @@
+package com.revcart.repository;
+
+import com.revcart.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByRequestKey(String requestKey);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.requestKey = :requestKey")
+    int deleteByRequestKey(@Param("requestKey") String requestKey);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = com.revcart.entity.IdempotencyRecord.Status.COMPLETED, " +
+           "r.httpStatus = :httpStatus, r.responseBody = :body, r.completedAt = :now WHERE r.requestKey = :requestKey")
+    int complete(@Param("requestKey") String requestKey, @Param("httpStatus") int httpStatus,
+                 @Param("body") String body, @Param("now") LocalDateTime now);
+
+    // In-flight keys are kept until they expire too: a crashed request may have placed the order already.
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :expiredBefore")
+    int purge(@Param("expiredBefore") LocalDateTime expiredBefore);
+}
@@ -0,0 +1,14 @@
+package com.revcart.repository;
+
+import com.revcart.dto.OrderLineRow;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface OrderLineStreams {
+
+    // One row per line item (or one bare row for an order without items), ordered so an order's lines are adjacent.
+    Stream<OrderLineRow> streamLines(Long fromId, Long toId);
+
+    Stream<OrderLineRow> streamLinesSince(LocalDateTime since);
+}
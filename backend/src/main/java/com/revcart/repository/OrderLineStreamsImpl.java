@@ -0,0 +1,53 @@
+package com.revcart.repository;
+
+import com.revcart.dto.OrderLineRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public class OrderLineStreamsImpl implements OrderLineStreams {
+
+    private static final String LINES_JPQL =
+        "SELECT new com.revcart.dto.OrderLineRow(o.id, o.orderDate, o.status, o.totalAmount, " +
+        "p.id, p.name, p.category, i.quantity, i.price) " +
+        "FROM Order o LEFT JOIN o.orderItems i LEFT JOIN i.product p " +
+        "WHERE o.id BETWEEN :fromId AND :toId ORDER BY o.id";
+
+    private static final String LINES_SINCE_JPQL =
+        "SELECT new com.revcart.dto.OrderLineRow(o.id, o.orderDate, o.status, o.totalAmount, " +
+        "p.id, p.name, p.category, i.quantity, i.price) " +
+        "FROM Order o JOIN o.orderItems i JOIN i.product p WHERE o.orderDate >= :since";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // On MySQL, Integer.MIN_VALUE makes Connector/J stream rows instead of buffering the whole result (the
+    // connection can run nothing else until the stream is closed). Other drivers reject it, so it is configured
+    // per datasource rather than hard-coded.
+    @Value("${revcart.jpa.stream-fetch-size:1000}")
+    private int streamFetchSize;
+
+    @Override
+    public Stream<OrderLineRow> streamLines(Long fromId, Long toId) {
+        return streaming(entityManager.createQuery(LINES_JPQL, OrderLineRow.class)
+            .setParameter("fromId", fromId)
+            .setParameter("toId", toId));
+    }
+
+    @Override
+    public Stream<OrderLineRow> streamLinesSince(LocalDateTime since) {
+        return streaming(entityManager.createQuery(LINES_SINCE_JPQL, OrderLineRow.class)
+            .setParameter("since", since));
+    }
+
+    private Stream<OrderLineRow> streaming(TypedQuery<OrderLineRow> query) {
+        return query.setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream();
+    }
+}
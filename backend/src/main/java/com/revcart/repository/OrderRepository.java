@@ -1,14 +1,75 @@
 package com.revcart.repository;
 
+import com.revcart.dto.DailyStatusTotals;
+import com.revcart.dto.OrderSummary;
+import com.revcart.dto.StatusTotals;
 import com.revcart.entity.Order;
+import com.revcart.entity.Payment;
 import com.revcart.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderLineStreams {
+    @Override
+    @EntityGraph(Order.GRAPH_DETAIL)
+    Optional<Order> findById(Long id);
+
+    // Admin list: users are joined in, line items and products arrive through batch fetching.
+    @Override
+    @EntityGraph(Order.GRAPH_WITH_USER)
+    List<Order> findAll();
+
+    @EntityGraph(Order.GRAPH_DETAIL)
     List<Order> findByUser(User user);
+
+    @EntityGraph(Order.GRAPH_DETAIL)
     List<Order> findByUserOrderByOrderDateDesc(User user);
+
+    @EntityGraph(Order.GRAPH_WITH_USER)
     List<Order> findByStatusOrderByOrderDateDesc(Order.OrderStatus status);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.revcart.dto.OrderSummary(o.id, o.orderDate, o.status, o.totalAmount, " +
+           "(SELECT COALESCE(SUM(oi.quantity), 0L) FROM OrderItem oi WHERE oi.order = o)) " +
+           "FROM Order o WHERE o.user.id = :userId ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findSummariesByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.revcart.dto.OrderSummary(o.id, o.orderDate, o.status, o.totalAmount, " +
+           "(SELECT COALESCE(SUM(oi.quantity), 0L) FROM OrderItem oi WHERE oi.order = o)) " +
+           "FROM Order o WHERE o.user.id = :userId " +
+           "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) " +
+           "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findSummariesByUserBefore(@Param("userId") Long userId, @Param("orderDate") LocalDateTime orderDate,
+                                                 @Param("id") Long id, Pageable pageable);
+
+    // Pending orders holding stock while an online payment is outstanding, with the time that payment was started.
+    @Query("SELECT o.id, p.createdAt FROM Payment p JOIN p.order o WHERE o.status = :status AND o.stockReserved = true " +
+           "AND p.status = :paymentStatus AND p.method <> :offline")
+    List<Object[]> findAwaitingPayment(@Param("status") Order.OrderStatus status,
+                                       @Param("paymentStatus") Payment.PaymentStatus paymentStatus,
+                                       @Param("offline") Payment.PaymentMethod offline);
+
+    @Query("SELECT new com.revcart.dto.StatusTotals(o.status, COUNT(o), SUM(o.totalAmount)) " +
+           "FROM Order o WHERE o.orderDate >= :from AND o.orderDate < :to GROUP BY o.status")
+    List<StatusTotals> summarizeByStatusBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.revcart.dto.DailyStatusTotals(cast(o.orderDate as LocalDate), o.status, COUNT(o), SUM(o.totalAmount)) " +
+           "FROM Order o WHERE o.orderDate IS NOT NULL GROUP BY cast(o.orderDate as LocalDate), o.status")
+    List<DailyStatusTotals> summarizeByDayAndStatus();
+
+    @Query("SELECT MIN(o.id), MAX(o.id) FROM Order o")
+    List<Object[]> findIdRange();
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to WHERE o.id = :id AND o.status IN :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") Collection<Order.OrderStatus> from, @Param("to") Order.OrderStatus to);
+}
@@ -0,0 +1,48 @@
+package com.revcart.repository;
+
+import com.revcart.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Rows written before next_attempt_at existed fall back to their creation time.
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.processedAt IS NULL AND COALESCE(e.nextAttemptAt, e.createdAt) <= :now " +
+           "AND e.attempts < :maxAttempts AND (e.lockedUntil IS NULL OR e.lockedUntil < :now) ORDER BY e.id")
+    List<Long> findPendingIds(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.lockedUntil = :until WHERE e.id = :id AND e.processedAt IS NULL " +
+           "AND (e.lockedUntil IS NULL OR e.lockedUntil < :now)")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.processedAt = :now, e.lockedUntil = NULL WHERE e.id = :id")
+    int complete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.lockedUntil = NULL, e.attempts = e.attempts + 1, e.lastError = :error, " +
+           "e.nextAttemptAt = :nextAttemptAt WHERE e.id = :id")
+    int release(@Param("id") Long id, @Param("error") String error, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = 0, e.nextAttemptAt = :now WHERE e.processedAt IS NULL AND e.attempts >= :maxAttempts")
+    int reviveDead(@Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now);
+
+    long countByProcessedAtIsNull();
+
+    long countByProcessedAtIsNullAndAttemptsGreaterThanEqual(int attempts);
+}
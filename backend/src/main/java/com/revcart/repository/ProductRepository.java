@@ -1,12 +1,40 @@
 package com.revcart.repository;
 
+import com.revcart.dto.ProductCard;
 import com.revcart.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategory(String category);
     List<Product> findByNameContainingIgnoreCase(String name);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.revcart.dto.ProductCard(p.id, p.name, p.price, p.image) FROM Product p ORDER BY p.id")
+    List<ProductCard> findCardsOrderById(Pageable pageable);
+
+    @Query("SELECT new com.revcart.dto.ProductCard(p.id, p.name, p.price, p.image) FROM Product p " +
+           "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductCard> findCardsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.revcart.dto.ProductCard(p.id, p.name, p.price, p.image) FROM Product p " +
+           "ORDER BY p.price, p.id")
+    List<ProductCard> findCardsOrderByPrice(Pageable pageable);
+
+    @Query("SELECT new com.revcart.dto.ProductCard(p.id, p.name, p.price, p.image) FROM Product p " +
+           "WHERE p.price > :price OR (p.price = :price AND p.id > :afterId) ORDER BY p.price, p.id")
+    List<ProductCard> findCardsAfterPrice(@Param("price") BigDecimal price, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.revcart.dto.ProductCard(p.id, p.name, p.price, p.image) FROM Product p " +
+           "ORDER BY p.price DESC, p.id DESC")
+    List<ProductCard> findCardsOrderByPriceDesc(Pageable pageable);
+
+    @Query("SELECT new com.revcart.dto.ProductCard(p.id, p.name, p.price, p.image) FROM Product p " +
+           "WHERE p.price < :price OR (p.price = :price AND p.id < :beforeId) ORDER BY p.price DESC, p.id DESC")
+    List<ProductCard> findCardsBeforePrice(@Param("price") BigDecimal price, @Param("beforeId") Long beforeId, Pageable pageable);
+}
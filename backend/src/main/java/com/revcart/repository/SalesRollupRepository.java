@@ -0,0 +1,16 @@
+package com.revcart.repository;
+
+import com.revcart.entity.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    List<SalesRollup> findByPeriod(SalesRollup.Period period);
+
+    List<SalesRollup> findByPeriodAndBucketStartGreaterThanEqual(SalesRollup.Period period, LocalDate from);
+}
@@ -3,6 +3,7 @@ package com.revcart.repository;
 import com.revcart.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -10,4 +11,5 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
     Optional<User> findByResetToken(String resetToken);
+    long countByCreatedAtGreaterThanEqual(LocalDateTime since);
 }
\ No newline at end of file
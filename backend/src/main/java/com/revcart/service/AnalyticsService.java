@@ -1,15 +1,22 @@
 package com.revcart.service;
 
+import com.revcart.dto.StatusTotals;
+import com.revcart.entity.Order;
+import com.revcart.entity.Product;
 import com.revcart.repository.OrderRepository;
 import com.revcart.repository.PaymentRepository;
 import com.revcart.repository.UserRepository;
 import com.revcart.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -27,17 +34,31 @@ public class AnalyticsService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderScanEngine orderScanEngine;
+
+    @Autowired
+    private HeavyHitterTracker heavyHitters;
+
+    @Autowired
+    private ProductService productService;
+
     public Map<String, Object> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
+        SalesRollupService.Totals total = salesRollupService.total();
+        SalesRollupService.Totals today = salesRollupService.daily(1).get(LocalDate.now());
         
         stats.put("totalOrders", orderRepository.count());
         stats.put("totalUsers", userRepository.count());
         stats.put("totalProducts", productRepository.count());
-        stats.put("totalRevenue", calculateTotalRevenue());
-        stats.put("todayOrders", countOrdersToday());
-        stats.put("todayRevenue", calculateTodayRevenue());
-        stats.put("pendingOrders", countPendingOrders());
-        stats.put("deliveredOrders", countDeliveredOrders());
+        stats.put("totalRevenue", Paise.toRupees(total.getRevenuePaise()).doubleValue());
+        stats.put("todayOrders", today.getOrders());
+        stats.put("todayRevenue", Paise.toRupees(today.getRevenuePaise()).doubleValue());
+        stats.put("pendingOrders", total.count(Order.OrderStatus.PENDING));
+        stats.put("deliveredOrders", total.count(Order.OrderStatus.DELIVERED));
         
         return stats;
     }
@@ -49,124 +70,98 @@ public class AnalyticsService {
         analytics.put("monthlySales", calculateMonthlySales());
         analytics.put("topProducts", getTopProducts());
         analytics.put("topCategories", getTopCategories());
+        analytics.put("last30DaysByStatus", summarizeLast30Days());
         
         return analytics;
     }
 
+    public Map<String, Object> getSalesReport() {
+        OrderAccumulator<Long> revenue = OrderAccumulators.sum(OrderRecord::getTotalPaise);
+        OrderAccumulator<Long> orders = OrderAccumulators.count(order -> true);
+        OrderAccumulator<Map<LocalDate, Long>> dailyRevenue = OrderAccumulators.byDay(OrderRecord::getTotalPaise);
+        OrderAccumulator<Map<Order.OrderStatus, Long>> statusCounts = OrderAccumulators.byStatus(order -> 1);
+        OrderAccumulator<Map<Long, Long>> topProducts =
+            OrderAccumulators.topK(OrderRecord.Line::getProductId, OrderRecord.Line::getQuantity, 10);
+        OrderAccumulator<Map<String, Long>> topCategories =
+            OrderAccumulators.topK(OrderRecord.Line::getCategory, OrderRecord.Line::getTotalPaise, 10);
+        orderScanEngine.scan(List.of(revenue, orders, dailyRevenue, statusCounts, topProducts, topCategories));
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("totalOrders", orders.result());
+        report.put("totalRevenue", Paise.toRupees(revenue.result()));
+        Map<String, BigDecimal> daily = new LinkedHashMap<>();
+        dailyRevenue.result().forEach((date, paise) -> daily.put(date.toString(), Paise.toRupees(paise)));
+        report.put("dailyRevenue", daily);
+        report.put("ordersByStatus", statusCounts.result());
+        report.put("topProducts", topProducts.result());
+        Map<String, BigDecimal> categories = new LinkedHashMap<>();
+        topCategories.result().forEach((category, paise) -> categories.put(category, Paise.toRupees(paise)));
+        report.put("topCategories", categories);
+        return report;
+    }
+
     public Map<String, Object> getUserAnalytics() {
         Map<String, Object> analytics = new HashMap<>();
         
-        analytics.put("totalUsers", userRepository.count());
-        analytics.put("activeUsers", countActiveUsers());
-        analytics.put("newUsersThisMonth", countNewUsersThisMonth());
-        analytics.put("userRetention", calculateUserRetention());
+        long totalUsers = userRepository.count();
+        long activeUsers = userRepository.countByCreatedAtGreaterThanEqual(LocalDateTime.now().minusMonths(1));
+        analytics.put("totalUsers", totalUsers);
+        analytics.put("activeUsers", activeUsers);
+        analytics.put("newUsersThisMonth",
+            userRepository.countByCreatedAtGreaterThanEqual(LocalDateTime.of(LocalDate.now().withDayOfMonth(1), LocalTime.MIN)));
+        analytics.put("userRetention", totalUsers > 0 ? (activeUsers * 100.0) / totalUsers : 0);
         
         return analytics;
     }
 
-    private Double calculateTotalRevenue() {
-        return orderRepository.findAll().stream()
-            .mapToDouble(order -> order.getTotalAmount() != null ? order.getTotalAmount().doubleValue() : 0)
-            .sum();
-    }
-
-    private Double calculateTodayRevenue() {
-        LocalDateTime startOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MIN);
-        LocalDateTime endOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MAX);
-        
-        return orderRepository.findAll().stream()
-            .filter(order -> order.getOrderDate() != null && 
-                    order.getOrderDate().isAfter(startOfDay) && 
-                    order.getOrderDate().isBefore(endOfDay))
-            .mapToDouble(order -> order.getTotalAmount() != null ? order.getTotalAmount().doubleValue() : 0)
-            .sum();
-    }
-
-    private Long countOrdersToday() {
-        LocalDateTime startOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MIN);
-        LocalDateTime endOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MAX);
-        
-        return orderRepository.findAll().stream()
-            .filter(order -> order.getOrderDate() != null && 
-                    order.getOrderDate().isAfter(startOfDay) && 
-                    order.getOrderDate().isBefore(endOfDay))
-            .count();
-    }
-
-    private Long countPendingOrders() {
-        return orderRepository.findAll().stream()
-            .filter(order -> "PENDING".equals(order.getStatus()))
-            .count();
-    }
-
-    private Long countDeliveredOrders() {
-        return orderRepository.findAll().stream()
-            .filter(order -> "DELIVERED".equals(order.getStatus()))
-            .count();
-    }
-
-    private Long countActiveUsers() {
-        LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
-        return userRepository.findAll().stream()
-            .filter(user -> user.getCreatedAt() != null && user.getCreatedAt().isAfter(oneMonthAgo))
-            .count();
+    private Map<String, Long> calculateDailySales() {
+        Map<String, Long> dailySales = new LinkedHashMap<>();
+        salesRollupService.daily(7).forEach((date, totals) -> dailySales.put(date.toString(), totals.getOrders()));
+        return dailySales;
     }
 
-    private Long countNewUsersThisMonth() {
-        LocalDateTime startOfMonth = LocalDateTime.of(LocalDate.now().withDayOfMonth(1), LocalTime.MIN);
-        return userRepository.findAll().stream()
-            .filter(user -> user.getCreatedAt() != null && user.getCreatedAt().isAfter(startOfMonth))
-            .count();
+    private Map<String, Long> calculateMonthlySales() {
+        Map<String, Long> monthlySales = new LinkedHashMap<>();
+        salesRollupService.monthly(12).forEach((month, totals) ->
+            monthlySales.put(month.getYear() + "-" + String.format("%02d", month.getMonthValue()), totals.getOrders()));
+        return monthlySales;
     }
 
-    private Map<String, Long> calculateDailySales() {
-        Map<String, Long> dailySales = new HashMap<>();
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            LocalDateTime startOfDay = LocalDateTime.of(date, LocalTime.MIN);
-            LocalDateTime endOfDay = LocalDateTime.of(date, LocalTime.MAX);
-            
-            long sales = orderRepository.findAll().stream()
-                .filter(order -> order.getOrderDate() != null && 
-                        order.getOrderDate().isAfter(startOfDay) && 
-                        order.getOrderDate().isBefore(endOfDay))
-                .count();
-            
-            dailySales.put(date.toString(), sales);
+    private Map<Order.OrderStatus, Map<String, Object>> summarizeLast30Days() {
+        LocalDateTime to = LocalDateTime.of(LocalDate.now().plusDays(1), LocalTime.MIN);
+        Map<Order.OrderStatus, Map<String, Object>> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        for (StatusTotals totals : orderRepository.summarizeByStatusBetween(to.minusDays(30), to)) {
+            byStatus.put(totals.getStatus(), Map.of("orders", totals.getOrders(), "revenue", totals.getRevenue()));
         }
-        return dailySales;
+        return byStatus;
     }
 
-    private Map<String, Long> calculateMonthlySales() {
-        Map<String, Long> monthlySales = new HashMap<>();
-        for (int i = 11; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusMonths(i);
-            String month = date.getYear() + "-" + String.format("%02d", date.getMonthValue());
-            
-            long sales = orderRepository.findAll().stream()
-                .filter(order -> order.getOrderDate() != null && 
-                        order.getOrderDate().getYear() == date.getYear() &&
-                        order.getOrderDate().getMonthValue() == date.getMonthValue())
-                .count();
-            
-            monthlySales.put(month, sales);
-        }
-        return monthlySales;
+    public Map<String, Object> getTrending(String window, int limit) {
+        HeavyHitterTracker.Window range = HeavyHitterTracker.Window.fromLabel(window);
+        int k = Math.max(1, Math.min(limit, 50));
+        Map<String, Object> trending = new HashMap<>();
+        trending.put("window", range.getLabel());
+        trending.put("products", topProducts(range, k));
+        trending.put("categories", heavyHitters.topCategories(range, k));
+        return trending;
     }
 
     private Map<String, Long> getTopProducts() {
-        Map<String, Long> topProducts = new HashMap<>();
-        return topProducts;
+        return topProducts(HeavyHitterTracker.Window.WEEK, 10);
     }
 
     private Map<String, Long> getTopCategories() {
-        Map<String, Long> topCategories = new HashMap<>();
-        return topCategories;
+        return heavyHitters.topCategories(HeavyHitterTracker.Window.WEEK, 10);
     }
 
-    private Double calculateUserRetention() {
-        long totalUsers = userRepository.count();
-        long activeUsers = countActiveUsers();
-        return totalUsers > 0 ? (activeUsers * 100.0) / totalUsers : 0;
+    private Map<String, Long> topProducts(HeavyHitterTracker.Window window, int k) {
+        Map<Long, Long> top = heavyHitters.topProducts(window, k);
+        Map<Long, Product> products = productService.getProductsByIds(top.keySet());
+        Map<String, Long> named = new LinkedHashMap<>();
+        top.forEach((productId, units) -> {
+            Product product = products.get(productId);
+            if (product != null) named.merge(product.getName(), units, Long::sum);
+        });
+        return named;
     }
 }
@@ -0,0 +1,113 @@
+package com.revcart.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class CartLines {
+
+    private final Map<Long, Line> lines = new LinkedHashMap<>();
+    private long subtotalPaise;
+    private int itemCount;
+    private String couponCode;
+    private int couponPercent;
+    private long couponMinPaise;
+
+    public int quantity(Long productId) {
+        Line line = lines.get(productId);
+        return line == null ? 0 : line.quantity;
+    }
+
+    public boolean contains(Long productId) {
+        return lines.containsKey(productId);
+    }
+
+    public void add(Long productId, int quantity, long unitPaise) {
+        set(productId, quantity(productId) + quantity, unitPaise);
+    }
+
+    public void set(Long productId, int quantity, long unitPaise) {
+        remove(productId);
+        if (quantity <= 0) return;
+        lines.put(productId, new Line(quantity, unitPaise));
+        subtotalPaise += quantity * unitPaise;
+        itemCount += quantity;
+    }
+
+    public void remove(Long productId) {
+        Line line = lines.remove(productId);
+        if (line == null) return;
+        subtotalPaise -= line.quantity * line.unitPaise;
+        itemCount -= line.quantity;
+    }
+
+    public void clear() {
+        lines.clear();
+        subtotalPaise = 0;
+        itemCount = 0;
+        removeCoupon();
+    }
+
+    public void reprice(Long productId, long unitPaise) {
+        Line line = lines.get(productId);
+        if (line == null) return;
+        subtotalPaise += line.quantity * (unitPaise - line.unitPaise);
+        line.unitPaise = unitPaise;
+    }
+
+    public void applyCoupon(String code, int percent, long minOrderPaise) {
+        couponCode = code;
+        couponPercent = percent;
+        couponMinPaise = minOrderPaise;
+    }
+
+    public void removeCoupon() {
+        couponCode = null;
+        couponPercent = 0;
+        couponMinPaise = 0;
+    }
+
+    public long discountPaise() {
+        if (couponCode == null || subtotalPaise < couponMinPaise) return 0;
+        return (subtotalPaise * couponPercent + 50) / 100;
+    }
+
+    public Snapshot snapshot() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        lines.forEach((productId, line) -> quantities.put(productId, line.quantity));
+        return new Snapshot(Collections.unmodifiableMap(quantities), subtotalPaise, itemCount, couponCode, discountPaise());
+    }
+
+    public static final class Snapshot {
+        private final Map<Long, Integer> items;
+        private final long subtotalPaise;
+        private final int itemCount;
+        private final String couponCode;
+        private final long discountPaise;
+
+        public Snapshot(Map<Long, Integer> items, long subtotalPaise, int itemCount, String couponCode, long discountPaise) {
+            this.items = items;
+            this.subtotalPaise = subtotalPaise;
+            this.itemCount = itemCount;
+            this.couponCode = couponCode;
+            this.discountPaise = discountPaise;
+        }
+
+        public Map<Long, Integer> getItems() { return items; }
+        public long getSubtotalPaise() { return subtotalPaise; }
+        public int getItemCount() { return itemCount; }
+        public String getCouponCode() { return couponCode; }
+        public long getDiscountPaise() { return discountPaise; }
+        public long getTotalPaise() { return subtotalPaise - discountPaise; }
+    }
+
+    private static final class Line {
+        private final int quantity;
+        private long unitPaise;
+
+        Line(int quantity, long unitPaise) {
+            this.quantity = quantity;
+            this.unitPaise = unitPaise;
+        }
+    }
+}
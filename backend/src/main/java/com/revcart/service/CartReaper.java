@@ -0,0 +1,101 @@
+package com.revcart.service;
+
+import com.revcart.repository.CartItemRepository;
+import com.revcart.repository.CartRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class CartReaper {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${revcart.cart.reaper.ttl-days:30}")
+    private long ttlDays;
+
+    @Value("${revcart.cart.reaper.chunk-size:500}")
+    private int chunkSize;
+
+    private long runs;
+    private long totalReaped;
+    private long lastReaped;
+    private long lastDurationMs;
+    private LocalDateTime lastRunAt;
+
+    @Scheduled(initialDelayString = "${revcart.cart.reaper.initial-delay-ms:60000}",
+               fixedDelayString = "${revcart.cart.reaper.interval-ms:3600000}")
+    public synchronized int reap() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(ttlDays);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int reaped = 0;
+        long afterId = 0;
+
+        try {
+            while (true) {
+                List<Object[]> idle = cartRepository.findIdleCarts(cutoff, afterId, PageRequest.of(0, chunkSize));
+                if (idle.isEmpty()) break;
+
+                List<Long> ids = new ArrayList<>(idle.size());
+                for (Object[] row : idle) {
+                    Long cartId = (Long) row[0];
+                    afterId = cartId;
+                    if (!cartStore.isLoaded((Long) row[1])) ids.add(cartId);
+                }
+                if (!ids.isEmpty()) {
+                    Integer deleted = tx.execute(status -> {
+                        cartItemRepository.deleteItemsOfIdleCarts(ids, cutoff);
+                        return cartRepository.deleteIdleCarts(ids, cutoff);
+                    });
+                    reaped += deleted == null ? 0 : deleted;
+                }
+                if (idle.size() < chunkSize) break;
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[CartReaper] Reaping stopped after " + reaped + " carts: " + e.getMessage());
+        }
+
+        long duration = System.currentTimeMillis() - started;
+        runs++;
+        totalReaped += reaped;
+        lastReaped = reaped;
+        lastDurationMs = duration;
+        lastRunAt = LocalDateTime.now();
+        if (reaped > 0) {
+            System.out.println("[CartReaper] Removed " + reaped + " carts idle for over " + ttlDays + " days in " + duration + "ms");
+        }
+        return reaped;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("runs", runs);
+        stats.put("totalReaped", totalReaped);
+        stats.put("lastReaped", lastReaped);
+        stats.put("lastDurationMs", lastDurationMs);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("ttlDays", ttlDays);
+        return stats;
+    }
+}
@@ -1,105 +1,137 @@
 package com.revcart.service;
 
+import com.revcart.dto.CartMutationRequest;
+import com.revcart.dto.CartTotals;
 import com.revcart.entity.*;
-import com.revcart.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
-@Transactional
 public class CartService {
 
-    @Autowired
-    private CartRepository cartRepository;
+    private static final String OP_ADD = "add";
+    private static final String OP_SET = "set";
+    private static final String OP_REMOVE = "remove";
 
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private CartStore cartStore;
 
     @Autowired
-    private ProductRepository productRepository;
+    private ProductService productService;
 
-    public Cart getOrCreateCart(User user) {
-        Optional<Cart> existingCart = cartRepository.findByUser(user);
-        if (existingCart.isPresent()) {
-            return existingCart.get();
-        }
-        
-        Cart newCart = new Cart(user);
-        return cartRepository.save(newCart);
-    }
+    @Autowired
+    private CouponService couponService;
 
     public Cart addToCart(User user, Long productId, Integer quantity) {
-        Cart cart = getOrCreateCart(user);
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        Optional<CartItem> existingItem = cartItemRepository.findByCartAndProduct(cart, product);
-        
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + quantity);
-            cartItemRepository.save(item);
-        } else {
-            CartItem newItem = new CartItem(cart, product, quantity);
-            cartItemRepository.save(newItem);
-        }
-
-        return cartRepository.findById(cart.getId()).orElse(cart);
+        long unitPaise = Paise.of(requireProduct(productId).getPrice());
+        return toCart(user, cartStore.mutate(user.getId(), lines -> lines.add(productId, quantity, unitPaise)));
     }
 
     public Cart updateCartItem(User user, Long productId, Integer quantity) {
-        Cart cart = getOrCreateCart(user);
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        Optional<CartItem> existingItem = cartItemRepository.findByCartAndProduct(cart, product);
-        
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            if (quantity <= 0) {
-                cartItemRepository.delete(item);
-            } else {
-                item.setQuantity(quantity);
-                cartItemRepository.save(item);
-            }
-        }
+        long unitPaise = Paise.of(requireProduct(productId).getPrice());
+        return toCart(user, cartStore.mutate(user.getId(), lines -> {
+            if (lines.contains(productId)) lines.set(productId, quantity, unitPaise);
+        }));
+    }
 
-        return cartRepository.findById(cart.getId()).orElse(cart);
+    public Cart applyMutations(User user, List<CartMutationRequest> mutations) {
+        for (CartMutationRequest mutation : mutations) {
+            validate(mutation);
+        }
+        Set<Long> productIds = mutations.stream().map(CartMutationRequest::getProductId).collect(Collectors.toSet());
+        Map<Long, Product> products = productService.getProductsByIds(productIds);
+
+        return toCart(user, cartStore.mutate(user.getId(), lines -> {
+            for (CartMutationRequest mutation : mutations) {
+                Long productId = mutation.getProductId();
+                Product product = products.get(productId);
+                switch (mutation.getOp()) {
+                    case OP_ADD -> {
+                        if (product != null) lines.add(productId, mutation.getQuantity(), Paise.of(product.getPrice()));
+                    }
+                    case OP_SET -> {
+                        if (product != null) lines.set(productId, mutation.getQuantity(), Paise.of(product.getPrice()));
+                    }
+                    case OP_REMOVE -> lines.remove(productId);
+                    default -> throw new IllegalStateException();
+                }
+            }
+        }));
     }
 
     public void removeFromCart(User user, Long productId) {
-        Cart cart = getOrCreateCart(user);
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        Optional<CartItem> existingItem = cartItemRepository.findByCartAndProduct(cart, product);
-        existingItem.ifPresent(cartItemRepository::delete);
+        requireProduct(productId);
+        cartStore.mutate(user.getId(), lines -> lines.remove(productId));
     }
 
     public void clearCart(User user) {
-        Cart cart = getOrCreateCart(user);
-        if (cart.getCartItems() != null) {
-            cartItemRepository.deleteAll(cart.getCartItems());
-        }
-        cartItemRepository.deleteByCart(cart);
+        cartStore.mutate(user.getId(), CartLines::clear);
+    }
+
+    public Cart applyCoupon(User user, String code) {
+        Coupon coupon = couponService.findUsableCoupon(code)
+            .orElseThrow(() -> new RuntimeException("Invalid or expired coupon"));
+        long minOrderPaise = coupon.getMinOrderAmount() == null ? 0 : Paise.of(coupon.getMinOrderAmount());
+        return toCart(user, cartStore.mutate(user.getId(),
+            lines -> lines.applyCoupon(coupon.getCode(), coupon.getDiscountPercentage(), minOrderPaise)));
+    }
+
+    public Cart removeCoupon(User user) {
+        return toCart(user, cartStore.mutate(user.getId(), CartLines::removeCoupon));
     }
 
     public Cart getCart(User user) {
-        Cart cart = getOrCreateCart(user);
-        if (cart.getCartItems() != null) {
-            cart.getCartItems().size();
-        }
-        return cart;
+        return toCart(user, cartStore.items(user.getId()));
     }
 
     public Cart getCartByUser(User user) {
-        Cart cart = getOrCreateCart(user);
-        if (cart.getCartItems() != null) {
-            cart.getCartItems().size();
+        return getCart(user);
+    }
+
+    public Map<String, Object> getStoreStats() {
+        return cartStore.stats();
+    }
+
+    private void validate(CartMutationRequest mutation) {
+        String op = mutation.getOp();
+        Integer quantity = mutation.getQuantity();
+        if (OP_ADD.equals(op)) {
+            if (quantity == null || quantity <= 0) throw new IllegalArgumentException("add requires a positive quantity");
+        } else if (OP_SET.equals(op)) {
+            if (quantity == null || quantity < 0) throw new IllegalArgumentException("set requires a quantity of zero or more");
+        } else if (!OP_REMOVE.equals(op)) {
+            throw new IllegalArgumentException("Unknown cart operation: " + op);
         }
+    }
+
+    private Product requireProduct(Long productId) {
+        return productService.getProductById(productId).orElseThrow(() -> new RuntimeException("Product not found"));
+    }
+
+    private Cart toCart(User user, CartLines.Snapshot snapshot) {
+        Map<Long, Integer> items = snapshot.getItems();
+        Cart cart = new Cart(user);
+        cart.setId(cartStore.cartId(user.getId()));
+        cart.setCartItems(new ArrayList<>(items.size()));
+        cart.setTotals(new CartTotals(
+            Paise.toRupees(snapshot.getSubtotalPaise()),
+            Paise.toRupees(snapshot.getDiscountPaise()),
+            Paise.toRupees(snapshot.getTotalPaise()),
+            snapshot.getItemCount(),
+            snapshot.getCouponCode()
+        ));
+        if (items.isEmpty()) return cart;
+        Map<Long, Product> products = productService.getProductsByIds(items.keySet());
+        items.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product != null) cart.getCartItems().add(new CartItem(cart, product, quantity));
+        });
         return cart;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,452 @@
+package com.revcart.service;
+
+import com.revcart.entity.Cart;
+import com.revcart.entity.CartItem;
+import com.revcart.entity.Product;
+import com.revcart.repository.CartItemRepository;
+import com.revcart.repository.CartRepository;
+import com.revcart.repository.ProductRepository;
+import com.revcart.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+@Component
+public class CartStore {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CouponService couponService;
+
+    @Value("${revcart.cart.journal-path:data/cart-journal.log}")
+    private String journalPath;
+
+    @Value("${revcart.cart.idle-evict-minutes:30}")
+    private long idleEvictMinutes;
+
+    private static final String INSERT_CART_ITEM_SQL =
+        "INSERT INTO cart_items (cart_id, product_id, quantity) VALUES (?, ?, ?)";
+
+    private final Map<Long, CartState> carts = new ConcurrentHashMap<>();
+    // Journal lines for carts with changes not yet written to MySQL, keyed by user id.
+    private final Map<Long, Pending> pending = new LinkedHashMap<>();
+    private final Object journalLock = new Object();
+    // Lines accepted but not yet handed to the journal writer; guarded by journalLock.
+    private List<String> unwritten = new ArrayList<>();
+    // Held while touching the journal file. Mutations only ever tryLock it, so one of them writes for everyone queued.
+    private final ReentrantLock journalIo = new ReentrantLock();
+    private BufferedWriter journalWriter;
+    private long flushes;
+    private long flushFailures;
+
+    public CartLines.Snapshot items(Long userId) {
+        while (true) {
+            CartState state = load(userId);
+            synchronized (state) {
+                if (state.evicted) continue;
+                state.lastAccess = System.currentTimeMillis();
+                return state.lines.snapshot();
+            }
+        }
+    }
+
+    public Long cartId(Long userId) {
+        CartState state = carts.get(userId);
+        return state == null ? null : state.cartId;
+    }
+
+    public boolean isLoaded(Long userId) {
+        return carts.containsKey(userId);
+    }
+
+    public CartLines.Snapshot mutate(Long userId, Consumer<CartLines> change) {
+        while (true) {
+            CartState state = load(userId);
+            synchronized (state) {
+                if (state.evicted) continue;
+                change.accept(state.lines);
+                state.version++;
+                state.lastAccess = System.currentTimeMillis();
+                CartLines.Snapshot snapshot = state.lines.snapshot();
+                journal(userId, state.version, snapshot);
+                return snapshot;
+            }
+        }
+    }
+
+    public void reprice(Long productId, long unitPaise) {
+        carts.values().forEach(state -> {
+            synchronized (state) {
+                state.lines.reprice(productId, unitPaise);
+            }
+        });
+    }
+
+    public void removeProduct(Long productId) {
+        carts.forEach((userId, state) -> {
+            boolean contains;
+            synchronized (state) {
+                contains = state.lines.contains(productId);
+            }
+            if (contains) mutate(userId, lines -> lines.remove(productId));
+        });
+    }
+
+    // Runs while the context is still starting, before the web server accepts requests; replaying later would
+    // overwrite carts that users had already loaded and changed.
+    @PostConstruct
+    public void replayJournal() {
+        Path path = Path.of(journalPath);
+        if (!Files.exists(path)) return;
+        Map<Long, String> latest = new LinkedHashMap<>();
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                int sep = line.indexOf('|');
+                if (sep > 0) latest.put(Long.parseLong(line.substring(0, sep)), line);
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("[CartStore] Could not read cart journal: " + e.getMessage());
+            return;
+        }
+
+        Map<Long, Map<Long, Integer>> decoded = new LinkedHashMap<>();
+        Map<Long, String> coupons = new HashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        latest.forEach((userId, line) -> {
+            String body = line.substring(line.indexOf('|') + 1);
+            int couponSep = body.indexOf('|');
+            Map<Long, Integer> items = decode(couponSep < 0 ? body : body.substring(0, couponSep));
+            if (couponSep >= 0) coupons.put(userId, body.substring(couponSep + 1));
+            decoded.put(userId, items);
+            productIds.addAll(items.keySet());
+        });
+        Map<Long, Long> prices = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productRepository.findAllById(productIds)) {
+                prices.put(product.getId(), Paise.of(product.getPrice()));
+            }
+        }
+
+        latest.forEach((userId, line) -> {
+            CartState state = new CartState();
+            decoded.get(userId).forEach((productId, quantity) -> {
+                Long price = prices.get(productId);
+                if (price != null) state.lines.set(productId, quantity, price);
+            });
+            restoreCoupon(state.lines, coupons.get(userId));
+            state.version = 1;
+            carts.put(userId, state);
+            synchronized (journalLock) {
+                pending.put(userId, new Pending(1, line));
+            }
+        });
+        System.out.println("[CartStore] Replayed " + latest.size() + " unflushed carts from journal");
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${revcart.cart.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<Long> dirty;
+        synchronized (journalLock) {
+            dirty = new ArrayList<>(pending.keySet());
+        }
+        for (Long userId : dirty) {
+            CartState state = carts.get(userId);
+            if (state == null) continue;
+            CartLines.Snapshot snapshot;
+            long version;
+            synchronized (state) {
+                snapshot = state.lines.snapshot();
+                version = state.version;
+            }
+            try {
+                state.cartId = write(userId, snapshot);
+                synchronized (journalLock) {
+                    flushes++;
+                    Pending entry = pending.get(userId);
+                    if (entry != null && entry.version == version) pending.remove(userId);
+                }
+            } catch (RuntimeException e) {
+                synchronized (journalLock) {
+                    flushFailures++;
+                }
+                System.err.println("[CartStore] Failed to flush cart for user " + userId + ": " + e.getMessage());
+            }
+        }
+        compactJournal();
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        journalIo.lock();
+        try {
+            closeJournalWriter();
+        } finally {
+            journalIo.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        synchronized (journalLock) {
+            return Map.of(
+                "activeCarts", carts.size(),
+                "pendingCarts", pending.size(),
+                "flushes", flushes,
+                "flushFailures", flushFailures
+            );
+        }
+    }
+
+    // The database read stays outside the map so a slow load never blocks other users' carts; if two requests
+    // race to load the same cart, the first one stored wins and the other copy is discarded.
+    private CartState load(Long userId) {
+        CartState state = carts.get(userId);
+        if (state != null) return state;
+        CartState loaded = new CartState();
+        cartRepository.findByUserId(userId).ifPresent(cart -> {
+            loaded.cartId = cart.getId();
+            restoreCoupon(loaded.lines, cart.getCouponCode());
+            if (cart.getCartItems() != null) {
+                for (CartItem item : cart.getCartItems()) {
+                    if (item.getProduct() != null && item.getQuantity() != null) {
+                        loaded.lines.add(item.getProduct().getId(), item.getQuantity(), Paise.of(item.getProduct().getPrice()));
+                    }
+                }
+            }
+        });
+        state = carts.putIfAbsent(userId, loaded);
+        return state != null ? state : loaded;
+    }
+
+    // A coupon that was deactivated or used up while the cart was not in memory is dropped rather than restored.
+    private void restoreCoupon(CartLines lines, String code) {
+        if (code == null) return;
+        couponService.findUsableCoupon(code).ifPresent(coupon -> lines.applyCoupon(coupon.getCode(),
+            coupon.getDiscountPercentage(), coupon.getMinOrderAmount() == null ? 0 : Paise.of(coupon.getMinOrderAmount())));
+    }
+
+    private Long write(Long userId, CartLines.Snapshot snapshot) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Cart cart = cartRepository.findByUserId(userId)
+                .orElseGet(() -> cartRepository.save(new Cart(userRepository.getReferenceById(userId))));
+            if (cart.getCartItems() == null) cart.setCartItems(new ArrayList<>());
+
+            Map<Long, Integer> remaining = new LinkedHashMap<>(snapshot.getItems());
+            List<CartItem> changed = new ArrayList<>();
+            List<CartItem> added = new ArrayList<>();
+            List<CartItem> removed = new ArrayList<>();
+            for (CartItem item : cart.getCartItems()) {
+                Integer quantity = item.getProduct() == null ? null : remaining.remove(item.getProduct().getId());
+                if (quantity == null) {
+                    removed.add(item);
+                } else if (!quantity.equals(item.getQuantity())) {
+                    item.setQuantity(quantity);
+                    changed.add(item);
+                }
+            }
+            if (!remaining.isEmpty()) {
+                for (Product product : productRepository.findAllById(remaining.keySet())) {
+                    added.add(new CartItem(cart, product, remaining.get(product.getId())));
+                }
+            }
+
+            cart.getCartItems().removeAll(removed);
+            cart.setCouponCode(snapshot.getCouponCode());
+            cart.setUpdatedAt(LocalDateTime.now());
+            cartRepository.save(cart);
+            if (!removed.isEmpty()) cartItemRepository.deleteAllInBatch(removed);
+            if (!changed.isEmpty()) cartItemRepository.saveAll(changed);
+            // CartItem ids are IDENTITY, so Hibernate would insert these one statement at a time.
+            Long cartId = cart.getId();
+            if (!added.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_CART_ITEM_SQL, added, added.size(), (ps, item) -> {
+                    ps.setLong(1, cartId);
+                    ps.setLong(2, item.getProduct().getId());
+                    ps.setInt(3, item.getQuantity());
+                });
+            }
+            return cartId;
+        });
+    }
+
+    // userId|productId:quantity,...[|couponCode]
+    private void journal(Long userId, long version, CartLines.Snapshot snapshot) {
+        String line = userId + "|" + encode(snapshot.getItems())
+            + (snapshot.getCouponCode() == null ? "" : "|" + snapshot.getCouponCode());
+        synchronized (journalLock) {
+            pending.put(userId, new Pending(version, line));
+            unwritten.add(line);
+        }
+        drainJournal();
+    }
+
+    // Group commit: whoever gets the file writes every queued line in one append; the others return at once.
+    private void drainJournal() {
+        do {
+            if (!journalIo.tryLock()) return;
+            try {
+                List<String> lines;
+                synchronized (journalLock) {
+                    if (unwritten.isEmpty()) return;
+                    lines = unwritten;
+                    unwritten = new ArrayList<>();
+                }
+                try {
+                    BufferedWriter writer = journalWriter();
+                    for (String line : lines) {
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                    writer.flush();
+                } catch (IOException e) {
+                    closeJournalWriter();
+                    System.err.println("[CartStore] Could not append to cart journal: " + e.getMessage());
+                }
+            } finally {
+                journalIo.unlock();
+            }
+        } while (hasUnwritten());
+    }
+
+    private boolean hasUnwritten() {
+        synchronized (journalLock) {
+            return !unwritten.isEmpty();
+        }
+    }
+
+    private BufferedWriter journalWriter() throws IOException {
+        if (journalWriter == null) {
+            Path path = Path.of(journalPath);
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            journalWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return journalWriter;
+    }
+
+    private void closeJournalWriter() {
+        if (journalWriter == null) return;
+        try {
+            journalWriter.close();
+        } catch (IOException e) {
+            System.err.println("[CartStore] Could not close cart journal: " + e.getMessage());
+        }
+        journalWriter = null;
+    }
+
+    private void compactJournal() {
+        journalIo.lock();
+        try {
+            StringBuilder content = new StringBuilder();
+            synchronized (journalLock) {
+                // The pending snapshot already holds the newest line of every queued change.
+                unwritten.clear();
+                pending.values().forEach(entry -> content.append(entry.line).append('\n'));
+            }
+            closeJournalWriter();
+            Path path = Path.of(journalPath);
+            try {
+                if (content.length() == 0) {
+                    Files.deleteIfExists(path);
+                    return;
+                }
+                Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                Files.writeString(tmp, content, StandardCharsets.UTF_8);
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("[CartStore] Could not compact cart journal: " + e.getMessage());
+            }
+        } finally {
+            journalIo.unlock();
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictMinutes * 60_000;
+        carts.forEach((userId, state) -> {
+            synchronized (state) {
+                if (state.lastAccess >= cutoff) return;
+                synchronized (journalLock) {
+                    if (pending.containsKey(userId)) return;
+                }
+                state.evicted = true;
+                carts.remove(userId, state);
+            }
+        });
+    }
+
+    static String encode(Map<Long, Integer> items) {
+        StringBuilder line = new StringBuilder();
+        items.forEach((productId, quantity) -> {
+            if (line.length() > 0) line.append(',');
+            line.append(productId).append(':').append(quantity);
+        });
+        return line.toString();
+    }
+
+    static Map<Long, Integer> decode(String encoded) {
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        if (encoded.isEmpty()) return items;
+        for (String pair : encoded.split(",")) {
+            int sep = pair.indexOf(':');
+            items.put(Long.parseLong(pair.substring(0, sep)), Integer.parseInt(pair.substring(sep + 1)));
+        }
+        return items;
+    }
+
+    private static final class CartState {
+        private final CartLines lines = new CartLines();
+        private volatile Long cartId;
+        private long version;
+        private long lastAccess = System.currentTimeMillis();
+        private boolean evicted;
+    }
+
+    private static final class Pending {
+        private final long version;
+        private final String line;
+
+        Pending(long version, String line) {
+            this.version = version;
+            this.line = line;
+        }
+    }
+}
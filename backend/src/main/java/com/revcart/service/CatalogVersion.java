@@ -0,0 +1,62 @@
+package com.revcart.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+@Component
+public class CatalogVersion {
+
+    private final LongSupplier clock;
+    private final long startedAt;
+    private final String epoch;
+    private final Map<Long, Stamp> products = new ConcurrentHashMap<>();
+    private volatile Stamp catalog;
+    private long counter;
+
+    public CatalogVersion() {
+        this(System::currentTimeMillis);
+    }
+
+    CatalogVersion(LongSupplier clock) {
+        this.clock = clock;
+        this.startedAt = clock.getAsLong();
+        // Versions live in memory only, so tag them with the startup time to keep
+        // ETags handed out before a restart from matching afterwards.
+        this.epoch = Long.toString(startedAt, 36);
+        this.catalog = new Stamp("c-" + epoch + "-0", startedAt);
+    }
+
+    public Stamp catalog() {
+        return catalog;
+    }
+
+    public Stamp product(Long productId) {
+        Stamp stamp = products.get(productId);
+        return stamp != null ? stamp : new Stamp("p" + productId + "-" + epoch + "-0", startedAt);
+    }
+
+    public synchronized void bump(Long productId) {
+        long version = ++counter;
+        long now = clock.getAsLong();
+        catalog = new Stamp("c-" + epoch + "-" + version, now);
+        if (productId != null) {
+            products.put(productId, new Stamp("p" + productId + "-" + epoch + "-" + version, now));
+        }
+    }
+
+    public static final class Stamp {
+        private final String etag;
+        private final long lastModified;
+
+        Stamp(String etag, long lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public String getEtag() { return etag; }
+        public long getLastModified() { return lastModified; }
+    }
+}
@@ -14,16 +14,14 @@ public class CouponService {
     private CouponRepository couponRepository;
 
     public Optional<Coupon> validateCoupon(String code, BigDecimal orderAmount) {
-        Optional<Coupon> coupon = couponRepository.findByCode(code);
-        
-        if (coupon.isPresent()) {
-            Coupon c = coupon.get();
-            if (!c.getActive()) return Optional.empty();
-            if (c.getMaxUses() != null && c.getUsedCount() >= c.getMaxUses()) return Optional.empty();
-            if (orderAmount.compareTo(c.getMinOrderAmount()) < 0) return Optional.empty();
-            return coupon;
-        }
-        return Optional.empty();
+        return findUsableCoupon(code)
+            .filter(c -> c.getMinOrderAmount() == null || orderAmount.compareTo(c.getMinOrderAmount()) >= 0);
+    }
+
+    public Optional<Coupon> findUsableCoupon(String code) {
+        return couponRepository.findByCode(code)
+            .filter(c -> Boolean.TRUE.equals(c.getActive()))
+            .filter(c -> c.getMaxUses() == null || c.getUsedCount() < c.getMaxUses());
     }
 
     public BigDecimal calculateDiscount(Coupon coupon, BigDecimal orderAmount) {
@@ -31,11 +29,8 @@ public class CouponService {
                 .divide(BigDecimal.valueOf(100));
     }
 
-    public void useCoupon(String code) {
-        couponRepository.findByCode(code).ifPresent(coupon -> {
-            coupon.setUsedCount(coupon.getUsedCount() + 1);
-            couponRepository.save(coupon);
-        });
+    public boolean useCoupon(String code) {
+        return couponRepository.consume(code) == 1;
     }
 
     public List<Coupon> getAllCoupons() {
@@ -20,6 +20,9 @@ public class DeliveryService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderService orderService;
+
     private Map<Long, Map<String, Object>> agentLocations = new HashMap<>();
 
     public DeliveryAgent assignDeliveryAgent(Long orderId) {
@@ -38,11 +41,7 @@ public class DeliveryService {
     }
 
     public void updateDeliveryStatus(Long orderId, Order.OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new RuntimeException("Order not found"));
-        
-        order.setStatus(status);
-        orderRepository.save(order);
+        orderService.updateOrderStatus(orderId, status);
 
         if (status == Order.OrderStatus.DELIVERED) {
             DeliveryAgent agent = deliveryAgentRepository.findAll().stream()
@@ -0,0 +1,64 @@
+package com.revcart.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Buckets deadlines by tick so scheduling and cancelling are O(1); each advance only scans the buckets it passes.
+public class HashedTimingWheel<K> {
+
+    private final long tickMs;
+    private final int mask;
+    private final Map<K, Long>[] buckets;
+    private final Map<K, Long> deadlines = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0) throw new IllegalArgumentException("tickMs must be positive");
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMs = tickMs;
+        this.mask = size - 1;
+        this.buckets = new Map[size];
+        for (int i = 0; i < size; i++) buckets[i] = new HashMap<>();
+        this.currentTick = startMs / tickMs;
+    }
+
+    public synchronized void schedule(K key, long deadlineMs) {
+        cancel(key);
+        long deadlineTick = Math.max(Math.floorDiv(deadlineMs + tickMs - 1, tickMs), currentTick + 1);
+        buckets[(int) (deadlineTick & mask)].put(key, deadlineTick);
+        deadlines.put(key, deadlineTick);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Long deadlineTick = deadlines.remove(key);
+        if (deadlineTick == null) return false;
+        buckets[(int) (deadlineTick & mask)].remove(key);
+        return true;
+    }
+
+    public synchronized List<K> advance(long nowMs) {
+        List<K> expired = new ArrayList<>();
+        long target = nowMs / tickMs;
+        while (currentTick < target) {
+            currentTick++;
+            Iterator<Map.Entry<K, Long>> it = buckets[(int) (currentTick & mask)].entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Long> entry = it.next();
+                if (entry.getValue() <= currentTick) {
+                    expired.add(entry.getKey());
+                    deadlines.remove(entry.getKey());
+                    it.remove();
+                }
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+}
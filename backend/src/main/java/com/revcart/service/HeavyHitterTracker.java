@@ -0,0 +1,117 @@
+package com.revcart.service;
+
+import com.revcart.dto.OrderLineRow;
+import com.revcart.entity.OrderItem;
+import com.revcart.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Component
+public class HeavyHitterTracker {
+
+    public enum Window {
+        HOUR("1h", 3_600_000L, 12),
+        DAY("24h", 86_400_000L, 24),
+        WEEK("7d", 604_800_000L, 28);
+
+        private final String label;
+        private final long millis;
+        private final int slices;
+
+        Window(String label, long millis, int slices) {
+            this.label = label;
+            this.millis = millis;
+            this.slices = slices;
+        }
+
+        public String getLabel() { return label; }
+
+        public static Window fromLabel(String label) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(label)) return window;
+            }
+            throw new IllegalArgumentException("Unknown window: " + label + " (use 1h, 24h or 7d)");
+        }
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Window, RollingTopK<Long>> products = new EnumMap<>(Window.class);
+    private final Map<Window, RollingTopK<String>> categories = new EnumMap<>(Window.class);
+
+    public HeavyHitterTracker(@Value("${revcart.analytics.heavy-hitters.capacity:200}") int capacity) {
+        for (Window window : Window.values()) {
+            products.put(window, new RollingTopK<>(window.millis, window.slices, capacity));
+            categories.put(window, new RollingTopK<>(window.millis, window.slices, capacity));
+        }
+    }
+
+    public void recordOrder(List<OrderItem> items, LocalDateTime placedAt) {
+        long atMs = toMillis(placedAt);
+        for (OrderItem item : items) {
+            if (item.getProduct() == null || item.getQuantity() == null) continue;
+            record(item.getProduct().getId(), item.getProduct().getCategory(), item.getQuantity(), atMs);
+        }
+    }
+
+    public Map<Long, Long> topProducts(Window window, int k) {
+        return products.get(window).top(k, System.currentTimeMillis());
+    }
+
+    public Map<String, Long> topCategories(Window window, int k) {
+        return categories.get(window).top(k, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime since = LocalDateTime.now().minusDays(7);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        Long lines;
+        try {
+            lines = template.execute(status -> {
+                long count = 0;
+                try (Stream<OrderLineRow> rows = orderRepository.streamLinesSince(since)) {
+                    for (OrderLineRow row : (Iterable<OrderLineRow>) rows::iterator) {
+                        if (row.getProductId() == null || row.getQuantity() == null || row.getOrderDate() == null) continue;
+                        record(row.getProductId(), row.getCategory(), row.getQuantity(), toMillis(row.getOrderDate()));
+                        count++;
+                    }
+                }
+                return count;
+            });
+        } catch (RuntimeException e) {
+            // Trending starts from whatever new orders record; startup must not fail over a warm-up.
+            System.err.println("[HeavyHitterTracker] Could not replay recent order lines: " + e.getMessage());
+            return;
+        }
+        System.out.println("[HeavyHitterTracker] Replayed " + lines + " order lines from the last 7 days");
+    }
+
+    private void record(Long productId, String category, int quantity, long atMs) {
+        for (Window window : Window.values()) {
+            products.get(window).offer(productId, quantity, atMs);
+            if (category != null) categories.get(window).offer(category, quantity, atMs);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
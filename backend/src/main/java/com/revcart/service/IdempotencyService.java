@@ -0,0 +1,201 @@
+package com.revcart.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revcart.entity.IdempotencyRecord;
+import com.revcart.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final String PLACEHOLDER_BODY = "{\"message\":\"This request was already processed\"}";
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${revcart.idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    private final long ttlHours;
+    // Responses for keys seen by this instance; the unique request_key column covers other instances and evictions.
+    private final LruCache<String, CompletableFuture<ResponseEntity<?>>> responses;
+
+    public IdempotencyService(@Value("${revcart.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${revcart.idempotency.ttl-hours:24}") long ttlHours) {
+        this.ttlHours = ttlHours;
+        this.responses = new LruCache<>(cacheSize, TimeUnit.HOURS.toMillis(ttlHours));
+    }
+
+    public ResponseEntity<?> execute(String scope, String principal, String key, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) return action.get();
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters"));
+        }
+        String requestKey = requestKey(scope, principal, key);
+
+        CompletableFuture<ResponseEntity<?>> mine = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> existing;
+        synchronized (responses) {
+            existing = responses.get(requestKey);
+            if (existing == null) responses.put(requestKey, mine);
+        }
+        if (existing != null) return await(existing);
+
+        if (!claim(requestKey)) {
+            Optional<ResponseEntity<?>> stored = storedResponse(requestKey);
+            if (stored.isPresent()) {
+                mine.complete(stored.get());
+                return stored.get();
+            }
+            forget(requestKey, mine);
+            return inProgress();
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(requestKey, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is2xxSuccessful()) {
+            store(requestKey, response);
+        } else {
+            // Failed attempts are not remembered so the client can fix the problem and retry with the same key.
+            release(requestKey, mine);
+        }
+        mine.complete(response);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${revcart.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = recordRepository.purge(LocalDateTime.now().minusHours(ttlHours));
+        if (purged > 0) System.out.println("[IdempotencyService] Purged " + purged + " expired idempotency keys");
+    }
+
+    public Map<String, Object> stats() {
+        return responses.stats();
+    }
+
+    // Principals are emails of up to 255 characters, so the composite is hashed to fit the unique request_key column.
+    static String requestKey(String scope, String principal, String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest((scope + ":" + principal + ":" + key).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private boolean claim(String requestKey) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            tx.executeWithoutResult(status -> recordRepository.saveAndFlush(new IdempotencyRecord(requestKey)));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void store(String requestKey, ResponseEntity<?> response) {
+        try {
+            String body = objectMapper.writeValueAsString(response.getBody());
+            recordRepository.findByRequestKey(requestKey).ifPresent(record -> {
+                record.setStatus(IdempotencyRecord.Status.COMPLETED);
+                record.setHttpStatus(response.getStatusCode().value());
+                record.setResponseBody(body);
+                record.setCompletedAt(LocalDateTime.now());
+                recordRepository.save(record);
+            });
+            return;
+        } catch (JsonProcessingException | RuntimeException e) {
+            System.err.println("[IdempotencyService] Could not store response for " + requestKey + ": " + e.getMessage());
+        }
+        // The action has already run, so the key must not become claimable again. A retry gets a placeholder
+        // instead of placing a second order.
+        try {
+            recordRepository.complete(requestKey, response.getStatusCode().value(), PLACEHOLDER_BODY, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            System.err.println("[IdempotencyService] " + requestKey + " stays in flight until it expires: " + e.getMessage());
+        }
+    }
+
+    private Optional<ResponseEntity<?>> storedResponse(String requestKey) {
+        return recordRepository.findByRequestKey(requestKey)
+            .filter(record -> record.getStatus() == IdempotencyRecord.Status.COMPLETED)
+            .map(record -> {
+                try {
+                    return ResponseEntity.status(record.getHttpStatus()).body(objectMapper.readTree(record.getResponseBody()));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Stored response for " + requestKey + " is not valid JSON", e);
+                }
+            });
+    }
+
+    private void release(String requestKey, CompletableFuture<ResponseEntity<?>> entry) {
+        try {
+            recordRepository.deleteByRequestKey(requestKey);
+        } catch (RuntimeException e) {
+            System.err.println("[IdempotencyService] Could not release " + requestKey + ": " + e.getMessage());
+        }
+        forget(requestKey, entry);
+    }
+
+    private void forget(String requestKey, CompletableFuture<ResponseEntity<?>> entry) {
+        synchronized (responses) {
+            if (responses.get(requestKey) == entry) responses.invalidate(requestKey);
+        }
+    }
+
+    private ResponseEntity<?> await(CompletableFuture<ResponseEntity<?>> pending) {
+        try {
+            return pending.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            return inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inProgress();
+        } catch (ExecutionException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", String.valueOf(e.getCause().getMessage())));
+        }
+    }
+
+    private static ResponseEntity<?> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(Map.of("message", "A request with this Idempotency-Key is still being processed"));
+    }
+}
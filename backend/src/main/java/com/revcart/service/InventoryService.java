@@ -0,0 +1,81 @@
+package com.revcart.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class InventoryService {
+
+    // The stock check and the decrement are one statement, so concurrent checkouts can never drive stock below zero.
+    private static final String RESERVE_SQL =
+        "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+    private static final String RELEASE_SQL =
+        "UPDATE products SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+
+    // Run this as late as possible in the checkout transaction: the row locks it takes are held until commit.
+    public void reserve(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) return;
+        List<Map.Entry<Long, Integer>> lines = sortedLines(quantities);
+        int[][] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        });
+
+        List<Long> shortages = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) shortages.add(lines.get(index).getKey());
+                index++;
+            }
+        }
+        if (!shortages.isEmpty()) {
+            rejected.incrementAndGet();
+            throw new RuntimeException("Insufficient stock for product(s): " + shortages);
+        }
+        reserved.incrementAndGet();
+        AfterCommit.run(() -> productService.stockChanged(quantities.keySet()));
+    }
+
+    public void release(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) return;
+        List<Map.Entry<Long, Integer>> lines = sortedLines(quantities);
+        jdbcTemplate.batchUpdate(RELEASE_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+        });
+        released.incrementAndGet();
+        AfterCommit.run(() -> productService.stockChanged(quantities.keySet()));
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of("reserved", reserved.get(), "rejected", rejected.get(), "released", released.get());
+    }
+
+    // Locking rows in id order keeps two overlapping baskets from deadlocking each other.
+    private static List<Map.Entry<Long, Integer>> sortedLines(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>();
+        new TreeMap<>(quantities).forEach((productId, quantity) -> {
+            if (quantity != null && quantity > 0) lines.add(Map.entry(productId, quantity));
+        });
+        return lines;
+    }
+}
@@ -1,54 +1,209 @@
 package com.revcart.service;
 
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
 import com.revcart.document.OrderAnalytics;
 import com.revcart.entity.Order;
 import com.revcart.entity.OrderItem;
 import com.revcart.mongo.OrderAnalyticsRepository;
 import com.revcart.repository.OrderRepository;
+import org.bson.Document;
+import org.bson.types.Decimal128;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.aggregation.*;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
 import org.springframework.stereotype.Service;
+
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 @Service
 public class MongoAnalyticsService {
 
+    static final String LIVE_COLLECTION = "order_analytics";
+    static final String SHADOW_COLLECTION = "order_analytics_rebuild";
+    static final String APPLIED_COLLECTION = "order_analytics_applied";
+    private static final int DUPLICATE_KEY = 11000;
+
     @Autowired
     private OrderAnalyticsRepository analyticsRepository;
 
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderScanEngine orderScanEngine;
+
     @Autowired
     private MongoTemplate mongoTemplate;
 
-    public void updateAnalytics() {
-        Map<Long, OrderAnalytics> analyticsMap = new HashMap<>();
-        
-        List<Order> orders = orderRepository.findAll();
-        for (Order order : orders) {
-            for (OrderItem item : order.getOrderItems()) {
-                Long productId = item.getProduct().getId();
-                analyticsMap.putIfAbsent(productId, new OrderAnalytics(
-                    productId,
-                    item.getProduct().getName(),
-                    item.getProduct().getCategory(),
-                    0,
-                    BigDecimal.ZERO
-                ));
-                
-                OrderAnalytics analytics = analyticsMap.get(productId);
-                analytics.setPurchaseCount(analytics.getPurchaseCount() + item.getQuantity());
-                analytics.setTotalRevenue(analytics.getTotalRevenue().add(
-                    item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity()))
-                ));
+    @Value("${revcart.analytics.applied-marker-ttl-days:30}")
+    private long appliedMarkerTtlDays;
+
+    // Longer than the outbox keeps retrying an event; older orders can no longer receive one.
+    @Value("${revcart.analytics.rebuild-event-horizon-minutes:1440}")
+    private long eventHorizonMinutes;
+
+    // How many recent order ids each product document remembers, so a retried order skips lines it already counted.
+    @Value("${revcart.analytics.recent-order-window:500}")
+    private int recentOrderWindow;
+
+    // Event writes hold the read lock; starting a rebuild and the shadow swap hold the write lock.
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Date rebuildStartedAt;
+    private volatile boolean shadowFailed;
+    private volatile String lastRebuild = "never";
+    private volatile boolean revenueMigrated;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            migrateRevenue();
+            mongoTemplate.indexOps(LIVE_COLLECTION).ensureIndex(new Index().on("productId", Sort.Direction.ASC).unique());
+            mongoTemplate.indexOps(APPLIED_COLLECTION).ensureIndex(
+                new Index().on("appliedAt", Sort.Direction.ASC).expire(Duration.ofDays(appliedMarkerTtlDays)));
+        } catch (RuntimeException e) {
+            System.err.println("[MongoAnalyticsService] Could not create analytics indexes: " + e.getMessage());
+        }
+    }
+
+    // Called by the outbox for each placed order. The standalone Mongo we run on has no multi-document
+    // transactions, so each product's increment carries its own guard: it only applies if the order is not yet in
+    // that document's recentOrders. A retry after a partial failure therefore adds just the missing lines, and the
+    // order marker, written once every line landed, turns later redeliveries into a no-op.
+    public void applyOrder(Long orderId) {
+        if (!revenueMigrated) migrateRevenue();
+        Order order = orderRepository.findById(orderId)
+            .orElseThrow(() -> new IllegalStateException("Order " + orderId + " not found"));
+        Map<Long, OrderAccumulators.ProductTotal> lines = linesByProduct(order.getOrderItems());
+        swapLock.readLock().lock();
+        try {
+            if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(orderId)), APPLIED_COLLECTION)) return;
+            increment(LIVE_COLLECTION, orderId, lines);
+            if (rebuildStartedAt != null) {
+                try {
+                    increment(SHADOW_COLLECTION, orderId, lines);
+                } catch (RuntimeException e) {
+                    // Live is already right and will not be retried, so give up on this rebuild instead.
+                    shadowFailed = true;
+                    System.err.println("[MongoAnalyticsService] Order " + orderId + " missed the rebuild: " + e.getMessage());
+                }
+            }
+            // Stamped under the lock so the rebuild can tell which events landed before it started.
+            try {
+                mongoTemplate.insert(new Document("_id", orderId).append("appliedAt", new Date()), APPLIED_COLLECTION);
+            } catch (DuplicateKeyException e) {
+                // A concurrent delivery of the same order finished first; the line guards kept the counts right.
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Documents written by the old delete-and-rebuild job hold totalRevenue as a string, which $inc rejects.
+    synchronized void migrateRevenue() {
+        if (revenueMigrated) return;
+        long converted = mongoTemplate.updateMulti(
+            Query.query(Criteria.where("totalRevenue").type(JsonSchemaObject.Type.stringType())),
+            AggregationUpdate.update().set("totalRevenue").toValue(ConvertOperators.valueOf("totalRevenue").convertToDecimal()),
+            LIVE_COLLECTION).getModifiedCount();
+        if (converted > 0) {
+            System.out.println("[MongoAnalyticsService] Converted totalRevenue to Decimal128 on " + converted + " documents");
+        }
+        revenueMigrated = true;
+    }
+
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) return false;
+        CompletableFuture.runAsync(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                System.err.println("[MongoAnalyticsService] Analytics rebuild failed: " + e.getMessage());
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    // Builds a fresh projection next to the live one and renames it over the top, so readers never see it empty.
+    // Every order is counted exactly once: by the scan if its event landed before the rebuild started (or can no
+    // longer arrive), otherwise by its event, which is written to both collections while the rebuild runs.
+    void rebuild() {
+        mongoTemplate.dropCollection(SHADOW_COLLECTION);
+        mongoTemplate.indexOps(SHADOW_COLLECTION).ensureIndex(new Index().on("productId", Sort.Direction.ASC).unique());
+        Date startedAt;
+        swapLock.writeLock().lock();
+        try {
+            startedAt = new Date();
+            shadowFailed = false;
+            rebuildStartedAt = startedAt;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        try {
+            LocalDateTime horizon = LocalDateTime.now().minusMinutes(eventHorizonMinutes);
+            Set<Long> appliedBefore = appliedBetween(Date.from(horizon.atZone(ZoneId.systemDefault()).toInstant()), startedAt);
+            OrderAccumulator<Map<Long, OrderAccumulators.ProductTotal>> products = OrderAccumulators.productTotals();
+            orderScanEngine.scan(List.of(OrderAccumulators.filtered(order -> order.getOrderDate() == null
+                || order.getOrderDate().isBefore(horizon) || appliedBefore.contains(order.getId()), products)));
+
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderAnalytics.class, SHADOW_COLLECTION);
+            for (OrderAccumulators.ProductTotal total : products.result().values()) {
+                ops.upsert(byProduct(total.getProductId()), increments(total.getProductName(), total.getCategory(),
+                    total.getQuantity(), Paise.toRupees(total.getRevenuePaise())));
+            }
+            if (!products.result().isEmpty()) ops.execute();
+
+            swapLock.writeLock().lock();
+            try {
+                if (shadowFailed) {
+                    throw new IllegalStateException("an order event could not be written to the rebuild; live analytics left as they were");
+                }
+                String database = mongoTemplate.getDb().getName();
+                mongoTemplate.getCollection(SHADOW_COLLECTION).renameCollection(
+                    new MongoNamespace(database, LIVE_COLLECTION), new RenameCollectionOptions().dropTarget(true));
+                rebuildStartedAt = null;
+            } finally {
+                swapLock.writeLock().unlock();
             }
+            lastRebuild = new Date().toString();
+            System.out.println("[MongoAnalyticsService] Rebuilt analytics for " + products.result().size() + " products");
+        } finally {
+            rebuildStartedAt = null;
         }
-        
-        analyticsRepository.deleteAll();
-        analyticsRepository.saveAll(analyticsMap.values());
+    }
+
+    private Set<Long> appliedBetween(Date from, Date to) {
+        Query query = Query.query(Criteria.where("appliedAt").gte(from).lt(to));
+        query.fields().include("_id");
+        Set<Long> ids = new HashSet<>();
+        for (Document marker : mongoTemplate.find(query, Document.class, APPLIED_COLLECTION)) {
+            ids.add(((Number) marker.get("_id")).longValue());
+        }
+        return ids;
     }
 
     public List<OrderAnalytics> getMostPurchasedItems() {
@@ -67,6 +222,51 @@ public class MongoAnalyticsService {
         Map<String, Object> summary = new HashMap<>();
         summary.put("mostPurchasedItems", getMostPurchasedItems());
         summary.put("topCategories", getTopCategoriesByRevenue());
+        summary.put("rebuilding", rebuilding.get());
+        summary.put("lastRebuild", lastRebuild);
         return summary;
     }
+
+    // One guarded line per product, since a second line for the same product would be skipped by the guard.
+    private static Map<Long, OrderAccumulators.ProductTotal> linesByProduct(List<OrderItem> items) {
+        Map<Long, OrderAccumulators.ProductTotal> lines = new LinkedHashMap<>();
+        if (items == null) return lines;
+        for (OrderItem item : items) {
+            if (item.getProduct() == null || item.getQuantity() == null || item.getPrice() == null) continue;
+            lines.computeIfAbsent(item.getProduct().getId(), id ->
+                    new OrderAccumulators.ProductTotal(id, item.getProduct().getName(), item.getProduct().getCategory()))
+                .add(item.getQuantity(), Paise.of(item.getPrice()) * item.getQuantity());
+        }
+        return lines;
+    }
+
+    private void increment(String collection, Long orderId, Map<Long, OrderAccumulators.ProductTotal> lines) {
+        if (lines.isEmpty()) return;
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderAnalytics.class, collection);
+        for (OrderAccumulators.ProductTotal line : lines.values()) {
+            Update update = increments(line.getProductName(), line.getCategory(), line.getQuantity(), Paise.toRupees(line.getRevenuePaise()));
+            update.push("recentOrders").slice(-recentOrderWindow).each(orderId);
+            ops.upsert(Query.query(Criteria.where("productId").is(line.getProductId()).and("recentOrders").ne(orderId)), update);
+        }
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            // The guard misses on a document that already lists this order, and the upsert then collides with the
+            // unique productId index: that line was counted by an earlier attempt.
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) throw e;
+        }
+    }
+
+    private static Query byProduct(Long productId) {
+        return Query.query(Criteria.where("productId").is(productId));
+    }
+
+    private static Update increments(String productName, String category, long quantity, BigDecimal revenue) {
+        return new Update()
+            .inc("purchaseCount", (int) quantity)
+            .inc("totalRevenue", new Decimal128(revenue))
+            .set("productName", productName)
+            .set("category", category)
+            .set("lastUpdated", System.currentTimeMillis());
+    }
 }
@@ -0,0 +1,13 @@
+package com.revcart.service;
+
+public interface OrderAccumulator<R> {
+
+    void accept(OrderRecord order);
+
+    // An empty accumulator of the same kind, used to scan one id range of a parallel scan.
+    OrderAccumulator<R> newPartition();
+
+    void merge(OrderAccumulator<R> other);
+
+    R result();
+}
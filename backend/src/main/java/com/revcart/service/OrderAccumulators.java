@@ -0,0 +1,249 @@
+package com.revcart.service;
+
+import com.revcart.entity.Order;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+public final class OrderAccumulators {
+
+    private OrderAccumulators() {}
+
+    public static OrderAccumulator<Long> sum(ToLongFunction<OrderRecord> value) {
+        return new Sum(value);
+    }
+
+    public static OrderAccumulator<Long> count(Predicate<OrderRecord> filter) {
+        return new Sum(order -> filter.test(order) ? 1 : 0);
+    }
+
+    public static <K> OrderAccumulator<Map<K, Long>> groupBy(Function<OrderRecord, K> key, ToLongFunction<OrderRecord> value,
+                                                             Supplier<Map<K, Long>> mapFactory) {
+        return new GroupBy<>(key, value, mapFactory);
+    }
+
+    public static OrderAccumulator<Map<LocalDate, Long>> byDay(ToLongFunction<OrderRecord> value) {
+        return groupBy(order -> order.getOrderDate() == null ? null : order.getOrderDate().toLocalDate(), value, TreeMap::new);
+    }
+
+    public static OrderAccumulator<Map<Order.OrderStatus, Long>> byStatus(ToLongFunction<OrderRecord> value) {
+        return groupBy(OrderRecord::getStatus, value, () -> new EnumMap<>(Order.OrderStatus.class));
+    }
+
+    // Exact top-K: keeps one counter per distinct key (bounded by the catalogue, not by order history).
+    public static <K> OrderAccumulator<Map<K, Long>> topK(Function<OrderRecord.Line, K> key,
+                                                          ToLongFunction<OrderRecord.Line> weight, int k) {
+        return new TopK<>(key, weight, k);
+    }
+
+    public static OrderAccumulator<Map<Long, ProductTotal>> productTotals() {
+        return new ProductTotals();
+    }
+
+    // Only orders matching the filter reach the delegate; the filter must be safe to call from parallel partitions.
+    public static <R> OrderAccumulator<R> filtered(Predicate<OrderRecord> filter, OrderAccumulator<R> delegate) {
+        return new Filtered<>(filter, delegate);
+    }
+
+    public static final class ProductTotal {
+        private final Long productId;
+        private final String productName;
+        private final String category;
+        private long quantity;
+        private long revenuePaise;
+
+        ProductTotal(Long productId, String productName, String category) {
+            this.productId = productId;
+            this.productName = productName;
+            this.category = category;
+        }
+
+        public Long getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public String getCategory() { return category; }
+        public long getQuantity() { return quantity; }
+        public long getRevenuePaise() { return revenuePaise; }
+
+        void add(long quantity, long revenuePaise) {
+            this.quantity += quantity;
+            this.revenuePaise += revenuePaise;
+        }
+    }
+
+    private static final class Sum implements OrderAccumulator<Long> {
+        private final ToLongFunction<OrderRecord> value;
+        private long total;
+
+        Sum(ToLongFunction<OrderRecord> value) {
+            this.value = value;
+        }
+
+        @Override
+        public void accept(OrderRecord order) {
+            total += value.applyAsLong(order);
+        }
+
+        @Override
+        public OrderAccumulator<Long> newPartition() {
+            return new Sum(value);
+        }
+
+        @Override
+        public void merge(OrderAccumulator<Long> other) {
+            total += ((Sum) other).total;
+        }
+
+        @Override
+        public Long result() {
+            return total;
+        }
+    }
+
+    private static final class Filtered<R> implements OrderAccumulator<R> {
+        private final Predicate<OrderRecord> filter;
+        private final OrderAccumulator<R> delegate;
+
+        Filtered(Predicate<OrderRecord> filter, OrderAccumulator<R> delegate) {
+            this.filter = filter;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void accept(OrderRecord order) {
+            if (filter.test(order)) delegate.accept(order);
+        }
+
+        @Override
+        public OrderAccumulator<R> newPartition() {
+            return new Filtered<>(filter, delegate.newPartition());
+        }
+
+        @Override
+        public void merge(OrderAccumulator<R> other) {
+            delegate.merge(((Filtered<R>) other).delegate);
+        }
+
+        @Override
+        public R result() {
+            return delegate.result();
+        }
+    }
+
+    private static final class GroupBy<K> implements OrderAccumulator<Map<K, Long>> {
+        private final Function<OrderRecord, K> key;
+        private final ToLongFunction<OrderRecord> value;
+        private final Supplier<Map<K, Long>> mapFactory;
+        private final Map<K, Long> groups;
+
+        GroupBy(Function<OrderRecord, K> key, ToLongFunction<OrderRecord> value, Supplier<Map<K, Long>> mapFactory) {
+            this.key = key;
+            this.value = value;
+            this.mapFactory = mapFactory;
+            this.groups = mapFactory.get();
+        }
+
+        @Override
+        public void accept(OrderRecord order) {
+            K group = key.apply(order);
+            if (group != null) groups.merge(group, value.applyAsLong(order), Long::sum);
+        }
+
+        @Override
+        public OrderAccumulator<Map<K, Long>> newPartition() {
+            return new GroupBy<>(key, value, mapFactory);
+        }
+
+        @Override
+        public void merge(OrderAccumulator<Map<K, Long>> other) {
+            ((GroupBy<K>) other).groups.forEach((group, total) -> groups.merge(group, total, Long::sum));
+        }
+
+        @Override
+        public Map<K, Long> result() {
+            return groups;
+        }
+    }
+
+    private static final class TopK<K> implements OrderAccumulator<Map<K, Long>> {
+        private final Function<OrderRecord.Line, K> key;
+        private final ToLongFunction<OrderRecord.Line> weight;
+        private final int k;
+        private final Map<K, Long> counts = new HashMap<>();
+
+        TopK(Function<OrderRecord.Line, K> key, ToLongFunction<OrderRecord.Line> weight, int k) {
+            this.key = key;
+            this.weight = weight;
+            this.k = k;
+        }
+
+        @Override
+        public void accept(OrderRecord order) {
+            for (OrderRecord.Line line : order.getLines()) {
+                K item = key.apply(line);
+                if (item != null) counts.merge(item, weight.applyAsLong(line), Long::sum);
+            }
+        }
+
+        @Override
+        public OrderAccumulator<Map<K, Long>> newPartition() {
+            return new TopK<>(key, weight, k);
+        }
+
+        @Override
+        public void merge(OrderAccumulator<Map<K, Long>> other) {
+            ((TopK<K>) other).counts.forEach((item, total) -> counts.merge(item, total, Long::sum));
+        }
+
+        @Override
+        public Map<K, Long> result() {
+            PriorityQueue<Map.Entry<K, Long>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<K, Long> entry : counts.entrySet()) {
+                heap.offer(entry);
+                if (heap.size() > k) heap.poll();
+            }
+            List<Map.Entry<K, Long>> top = new ArrayList<>(heap);
+            top.sort(Map.Entry.<K, Long>comparingByValue().reversed());
+            Map<K, Long> result = new LinkedHashMap<>();
+            top.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+            return result;
+        }
+    }
+
+    private static final class ProductTotals implements OrderAccumulator<Map<Long, ProductTotal>> {
+        private final Map<Long, ProductTotal> totals = new HashMap<>();
+
+        @Override
+        public void accept(OrderRecord order) {
+            for (OrderRecord.Line line : order.getLines()) {
+                ProductTotal total = totals.computeIfAbsent(line.getProductId(),
+                    id -> new ProductTotal(id, line.getProductName(), line.getCategory()));
+                total.add(line.getQuantity(), line.getTotalPaise());
+            }
+        }
+
+        @Override
+        public OrderAccumulator<Map<Long, ProductTotal>> newPartition() {
+            return new ProductTotals();
+        }
+
+        @Override
+        public void merge(OrderAccumulator<Map<Long, ProductTotal>> other) {
+            ((ProductTotals) other).totals.forEach((productId, total) -> {
+                ProductTotal mine = totals.putIfAbsent(productId, total);
+                if (mine != null) {
+                    mine.quantity += total.quantity;
+                    mine.revenuePaise += total.revenuePaise;
+                }
+            });
+        }
+
+        @Override
+        public Map<Long, ProductTotal> result() {
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.revcart.service;
+
+import com.revcart.entity.Order;
+import com.revcart.entity.Payment;
+import com.revcart.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class OrderExpiryScheduler {
+
+    @Autowired
+    private OrderExpiryTracker tracker;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${revcart.order.expiry-batch-size:200}")
+    private int batchSize;
+
+    private long expired;
+    private long failures;
+
+    // One read at startup re-arms the wheel for online payments started before the restart. COD orders and
+    // pending orders that never reserved stock are never expired.
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPendingOrders() {
+        List<Object[]> pending = orderRepository.findAwaitingPayment(Order.OrderStatus.PENDING,
+            Payment.PaymentStatus.PENDING, Payment.PaymentMethod.COD);
+        for (Object[] row : pending) {
+            tracker.track((Long) row[0], (LocalDateTime) row[1]);
+        }
+        System.out.println("[OrderExpiryScheduler] Tracking " + pending.size() + " pending orders");
+    }
+
+    @Scheduled(fixedDelayString = "${revcart.order.expiry-tick-ms:1000}")
+    public synchronized void tick() {
+        List<Long> due = tracker.expired(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            try {
+                expired += orderService.expirePendingOrders(batch);
+            } catch (RuntimeException e) {
+                System.err.println("[OrderExpiryScheduler] Batch of " + batch.size() + " failed, retrying one by one: " + e.getMessage());
+                for (Long orderId : batch) {
+                    try {
+                        expired += orderService.expirePendingOrders(List.of(orderId));
+                    } catch (RuntimeException single) {
+                        failures++;
+                        System.err.println("[OrderExpiryScheduler] Could not expire order " + orderId + ": " + single.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> stats() {
+        return Map.of("tracked", tracker.size(), "expired", expired, "failures", failures);
+    }
+}
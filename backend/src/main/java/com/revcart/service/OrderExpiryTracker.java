@@ -0,0 +1,38 @@
+package com.revcart.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+@Component
+public class OrderExpiryTracker {
+
+    private final HashedTimingWheel<Long> wheel;
+    private final long ttlMs;
+
+    public OrderExpiryTracker(@Value("${revcart.order.pending-ttl-minutes:15}") long ttlMinutes,
+                              @Value("${revcart.order.expiry-tick-ms:1000}") long tickMs) {
+        this.ttlMs = ttlMinutes * 60_000;
+        this.wheel = new HashedTimingWheel<>(tickMs, 4096, System.currentTimeMillis());
+    }
+
+    public void track(Long orderId, LocalDateTime orderDate) {
+        long placedAt = orderDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        wheel.schedule(orderId, placedAt + ttlMs);
+    }
+
+    public void forget(Long orderId) {
+        wheel.cancel(orderId);
+    }
+
+    public List<Long> expired(long nowMs) {
+        return wheel.advance(nowMs);
+    }
+
+    public int size() {
+        return wheel.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.revcart.service;
+
+import com.revcart.dto.OrderLineRow;
+import com.revcart.entity.Order;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class OrderRecord {
+
+    private final Long id;
+    private final LocalDateTime orderDate;
+    private final Order.OrderStatus status;
+    private final long totalPaise;
+    private final List<Line> lines = new ArrayList<>();
+
+    OrderRecord(OrderLineRow row) {
+        this.id = row.getOrderId();
+        this.orderDate = row.getOrderDate();
+        this.status = row.getStatus();
+        this.totalPaise = row.getTotalAmount() == null ? 0 : Paise.of(row.getTotalAmount());
+    }
+
+    void addLine(OrderLineRow row) {
+        if (row.getProductId() == null || row.getQuantity() == null) return;
+        long unitPaise = row.getPrice() == null ? 0 : Paise.of(row.getPrice());
+        lines.add(new Line(row.getProductId(), row.getProductName(), row.getCategory(), row.getQuantity(), unitPaise));
+    }
+
+    public Long getId() { return id; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public Order.OrderStatus getStatus() { return status; }
+    public long getTotalPaise() { return totalPaise; }
+    public List<Line> getLines() { return Collections.unmodifiableList(lines); }
+
+    public static final class Line {
+        private final Long productId;
+        private final String productName;
+        private final String category;
+        private final int quantity;
+        private final long unitPaise;
+
+        Line(Long productId, String productName, String category, int quantity, long unitPaise) {
+            this.productId = productId;
+            this.productName = productName;
+            this.category = category;
+            this.quantity = quantity;
+            this.unitPaise = unitPaise;
+        }
+
+        public Long getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public String getCategory() { return category; }
+        public int getQuantity() { return quantity; }
+        public long getUnitPaise() { return unitPaise; }
+        public long getTotalPaise() { return unitPaise * quantity; }
+    }
+}
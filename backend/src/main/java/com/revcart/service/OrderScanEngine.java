@@ -0,0 +1,165 @@
+package com.revcart.service;
+
+import com.revcart.dto.OrderLineRow;
+import com.revcart.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Service
+public class OrderScanEngine {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${revcart.analytics.scan-parallelism:1}")
+    private int parallelism;
+
+    @Value("${revcart.analytics.scan-min-partition:50000}")
+    private long minPartition;
+
+    private final AtomicLong scans = new AtomicLong();
+    private final AtomicLong ordersScanned = new AtomicLong();
+    private volatile long lastScanMs;
+
+    // Feeds every order to all accumulators in a single pass; results are read from the accumulators afterwards.
+    public long scan(List<? extends OrderAccumulator<?>> accumulators) {
+        long started = System.currentTimeMillis();
+        long[] range = idRange();
+        long orders = 0;
+        if (range != null) {
+            long span = range[1] - range[0] + 1;
+            int partitions = (int) Math.max(1, Math.min(parallelism, span / Math.max(1, minPartition)));
+            if (partitions <= 1) {
+                orders = scanRange(range[0], range[1], accumulators);
+            } else {
+                ForkJoinPool pool = new ForkJoinPool(partitions);
+                try {
+                    Partition result = pool.invoke(new RangeTask(range[0], range[1], (span + partitions - 1) / partitions, accumulators));
+                    for (int i = 0; i < accumulators.size(); i++) {
+                        mergeInto(accumulators.get(i), result.accumulators.get(i));
+                    }
+                    orders = result.orders;
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+        scans.incrementAndGet();
+        ordersScanned.addAndGet(orders);
+        lastScanMs = System.currentTimeMillis() - started;
+        return orders;
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+            "scans", scans.get(),
+            "ordersScanned", ordersScanned.get(),
+            "lastScanMs", lastScanMs,
+            "parallelism", parallelism
+        );
+    }
+
+    private long[] idRange() {
+        List<Object[]> rows = orderRepository.findIdRange();
+        if (rows.isEmpty() || rows.get(0)[0] == null) return null;
+        return new long[]{((Number) rows.get(0)[0]).longValue(), ((Number) rows.get(0)[1]).longValue()};
+    }
+
+    private long scanRange(long fromId, long toId, List<? extends OrderAccumulator<?>> accumulators) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        Long orders = template.execute(status -> {
+            long count = 0;
+            OrderRecord current = null;
+            try (Stream<OrderLineRow> rows = orderRepository.streamLines(fromId, toId)) {
+                for (OrderLineRow row : (Iterable<OrderLineRow>) rows::iterator) {
+                    if (current == null || !current.getId().equals(row.getOrderId())) {
+                        if (current != null) {
+                            emit(current, accumulators);
+                            count++;
+                        }
+                        current = new OrderRecord(row);
+                    }
+                    current.addLine(row);
+                }
+            }
+            if (current != null) {
+                emit(current, accumulators);
+                count++;
+            }
+            return count;
+        });
+        return orders == null ? 0 : orders;
+    }
+
+    private static void emit(OrderRecord order, List<? extends OrderAccumulator<?>> accumulators) {
+        for (OrderAccumulator<?> accumulator : accumulators) {
+            accumulator.accept(order);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> void mergeInto(OrderAccumulator<R> target, OrderAccumulator<?> source) {
+        target.merge((OrderAccumulator<R>) source);
+    }
+
+    private static final class Partition {
+        private final List<OrderAccumulator<?>> accumulators;
+        private long orders;
+
+        Partition(List<OrderAccumulator<?>> accumulators, long orders) {
+            this.accumulators = accumulators;
+            this.orders = orders;
+        }
+    }
+
+    private final class RangeTask extends RecursiveTask<Partition> {
+        private final long fromId;
+        private final long toId;
+        private final long partitionSize;
+        private final List<? extends OrderAccumulator<?>> templates;
+
+        RangeTask(long fromId, long toId, long partitionSize, List<? extends OrderAccumulator<?>> templates) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.partitionSize = partitionSize;
+            this.templates = templates;
+        }
+
+        @Override
+        protected Partition compute() {
+            if (toId - fromId + 1 <= partitionSize) {
+                List<OrderAccumulator<?>> partition = new ArrayList<>(templates.size());
+                for (OrderAccumulator<?> template : templates) {
+                    partition.add(template.newPartition());
+                }
+                return new Partition(partition, scanRange(fromId, toId, partition));
+            }
+            long mid = fromId + (toId - fromId) / 2;
+            RangeTask left = new RangeTask(fromId, mid, partitionSize, templates);
+            RangeTask right = new RangeTask(mid + 1, toId, partitionSize, templates);
+            invokeAll(left, right);
+            Partition merged = left.join();
+            Partition other = right.join();
+            for (int i = 0; i < merged.accumulators.size(); i++) {
+                mergeInto(merged.accumulators.get(i), other.accumulators.get(i));
+            }
+            merged.orders += other.orders;
+            return merged;
+        }
+    }
+}
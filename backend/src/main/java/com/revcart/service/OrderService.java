@@ -1,11 +1,27 @@
 package com.revcart.service;
 
+import com.revcart.dto.CartTotals;
+import com.revcart.dto.OrderPage;
+import com.revcart.dto.OrderSummary;
 import com.revcart.entity.*;
 import com.revcart.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
 
 @Service
@@ -13,12 +29,35 @@ public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
     @Autowired
-    private OrderItemRepository orderItemRepository;
-    @Autowired
     private CartService cartService;
     @Autowired
     private NotificationService notificationService;
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    @Autowired
+    private CouponService couponService;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private OrderExpiryTracker expiryTracker;
+    @Autowired
+    private SalesRollupService salesRollupService;
+    @Autowired
+    private HeavyHitterTracker heavyHitters;
 
+    private static final Set<Order.OrderStatus> CANCELLABLE = EnumSet.of(
+        Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.PROCESSING, Order.OrderStatus.SHIPPED);
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<Order.OrderStatus> EXPIRABLE = EnumSet.of(Order.OrderStatus.PENDING);
+
+    private static final String INSERT_ORDER_ITEM_SQL =
+        "INSERT INTO order_items (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
+
+    @Transactional
     public Order createOrder(User user, String deliveryAddress, String phoneNumber) {
         Cart cart = cartService.getCartByUser(user);
         if (cart == null || cart.getCartItems() == null || cart.getCartItems().isEmpty()) {
@@ -26,26 +65,47 @@ public class OrderService {
         }
 
         java.util.List<CartItem> cartItems = cart.getCartItems();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        
-        for (CartItem item : cartItems) {
-            if (item.getProduct() != null) {
-                totalAmount = totalAmount.add(item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        CartTotals totals = cart.getTotals();
+        BigDecimal totalAmount = totals.getTotal();
+        if (totals.getCouponCode() != null && totals.getDiscount().signum() > 0) {
+            // The coupon was checked when it was applied to the cart; it may have been deactivated or used up since.
+            if (couponService.validateCoupon(totals.getCouponCode(), totals.getSubtotal()).isEmpty()
+                    || !couponService.useCoupon(totals.getCouponCode())) {
+                throw new RuntimeException("Coupon " + totals.getCouponCode() + " is no longer available");
             }
         }
 
         Order order = new Order(user, totalAmount, deliveryAddress, phoneNumber);
+        order.setStockReserved(true);
         order = orderRepository.save(order);
 
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
         for (CartItem cartItem : cartItems) {
             if (cartItem.getProduct() != null) {
-                OrderItem orderItem = new OrderItem(order, cartItem.getProduct(), cartItem.getQuantity(), cartItem.getProduct().getPrice());
-                orderItemRepository.save(orderItem);
+                orderItems.add(new OrderItem(order, cartItem.getProduct(), cartItem.getQuantity(), cartItem.getProduct().getPrice()));
             }
         }
+        Long orderId = order.getId();
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM_SQL, orderItems, orderItems.size(), (ps, item) -> {
+            ps.setLong(1, orderId);
+            ps.setLong(2, item.getProduct().getId());
+            ps.setInt(3, item.getQuantity());
+            ps.setBigDecimal(4, item.getPrice());
+        });
 
-        cartService.clearCart(user);
-        notificationService.sendOrderConfirmation(user, order);
+        outboxService.enqueue(OutboxService.ORDER_CONFIRMATION, orderId);
+        outboxService.enqueue(OutboxService.ORDER_ANALYTICS, orderId);
+        inventoryService.reserve(quantities(orderItems));
+        salesRollupService.recordCreated(order);
+
+        LocalDateTime placedAt = order.getOrderDate();
+        AfterCommit.run(() -> {
+            cartService.clearCart(user);
+            for (OrderItem item : orderItems) {
+                searchIndex.recordPurchase(item.getProduct().getId(), item.getQuantity());
+            }
+            heavyHitters.recordOrder(orderItems, placedAt);
+        });
         return order;
     }
 
@@ -57,25 +117,97 @@ public class OrderService {
         return orderRepository.findByUserOrderByOrderDateDesc(user);
     }
 
+    public OrderPage getUserOrderPage(User user, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<OrderSummary> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = orderRepository.findSummariesByUser(user.getId(), page);
+        } else {
+            String position;
+            try {
+                position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = position.lastIndexOf('_');
+                summaries = orderRepository.findSummariesByUserBefore(user.getId(),
+                    LocalDateTime.parse(position.substring(0, sep)), Long.parseLong(position.substring(sep + 1)), page);
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+        }
+
+        if (summaries.size() <= pageSize) {
+            return new OrderPage(summaries, null);
+        }
+        summaries = summaries.subList(0, pageSize);
+        OrderSummary last = summaries.get(pageSize - 1);
+        String position = last.getOrderDate() + "_" + last.getId();
+        return new OrderPage(new ArrayList<>(summaries),
+            Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8)));
+    }
+
     public List<Order> getOrdersByStatus(Order.OrderStatus status) {
         return orderRepository.findByStatusOrderByOrderDateDesc(status);
     }
 
+    @Transactional
     public Order updateOrderStatus(Long orderId, Order.OrderStatus status) {
-        return orderRepository.findById(orderId).map(order -> {
-            order.setStatus(status);
-            return orderRepository.save(order);
-        }).orElseThrow(() -> new RuntimeException("Order not found"));
+        Order order = orderRepository.findById(orderId).orElseThrow(() -> new RuntimeException("Order not found"));
+        Order.OrderStatus from = order.getStatus();
+        if (from == status) return order;
+        if (status == Order.OrderStatus.CANCELLED) {
+            if (!cancel(order, CANCELLABLE)) throw new IllegalStateException("Order " + orderId + " cannot be cancelled from " + from);
+            return order;
+        }
+        if (from == Order.OrderStatus.CANCELLED || (status == Order.OrderStatus.CONFIRMED && from != Order.OrderStatus.PENDING)) {
+            throw new IllegalStateException("Order " + orderId + " cannot move from " + from + " to " + status);
+        }
+        // Conditional on the status we read, so a concurrent expiry or cancellation is never overwritten.
+        if (orderRepository.transitionStatus(orderId, EnumSet.of(from), status) == 0) {
+            throw new IllegalStateException("Order " + orderId + " changed status concurrently");
+        }
+        salesRollupService.recordStatusChange(order, from, status);
+        order.setStatus(status);
+        if (status != Order.OrderStatus.PENDING) expiryTracker.forget(orderId);
+        return order;
     }
 
+    @Transactional
     public void cancelOrder(Long orderId) {
-        orderRepository.findById(orderId).ifPresent(order -> {
-            if (order.getStatus() != Order.OrderStatus.DELIVERED && order.getStatus() != Order.OrderStatus.CANCELLED) {
-                order.setStatus(Order.OrderStatus.CANCELLED);
-                orderRepository.save(order);
-                notificationService.sendOrderCancellation(order.getUser(), order);
+        orderRepository.findById(orderId).ifPresent(order -> cancel(order, CANCELLABLE));
+    }
+
+    @Transactional
+    public int expirePendingOrders(List<Long> orderIds) {
+        int cancelled = 0;
+        for (Order order : orderRepository.findAllById(orderIds)) {
+            if (cancel(order, EXPIRABLE)) cancelled++;
+        }
+        return cancelled;
+    }
+
+    private boolean cancel(Order order, Set<Order.OrderStatus> from) {
+        // The conditional update makes sure only one caller cancels, so stock is released exactly once.
+        if (orderRepository.transitionStatus(order.getId(), from, Order.OrderStatus.CANCELLED) == 0) return false;
+        salesRollupService.recordStatusChange(order, order.getStatus(), Order.OrderStatus.CANCELLED);
+        order.setStatus(Order.OrderStatus.CANCELLED);
+        expiryTracker.forget(order.getId());
+        if (order.isStockReserved()) {
+            order.setStockReserved(false);
+            inventoryService.release(quantities(order.getOrderItems()));
+        }
+        notificationService.sendOrderCancellation(order.getUser(), order);
+        return true;
+    }
+
+    private static Map<Long, Integer> quantities(List<OrderItem> orderItems) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        if (orderItems == null) return quantities;
+        for (OrderItem item : orderItems) {
+            if (item.getProduct() != null && item.getQuantity() != null) {
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
             }
-        });
+        }
+        return quantities;
     }
 
     public List<Order> getAllOrders() {
@@ -0,0 +1,144 @@
+package com.revcart.service;
+
+import com.revcart.entity.Order;
+import com.revcart.entity.OutboxEvent;
+import com.revcart.repository.OrderRepository;
+import com.revcart.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class OutboxService {
+
+    public static final String ORDER_CONFIRMATION = "ORDER_CONFIRMATION";
+    public static final String ORDER_ANALYTICS = "ORDER_ANALYTICS";
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private MongoAnalyticsService mongoAnalyticsService;
+
+    @Value("${revcart.outbox.max-attempts:12}")
+    private int maxAttempts;
+
+    // First retry delay; it doubles with every failed attempt up to max-backoff-minutes.
+    @Value("${revcart.outbox.retry-after-seconds:30}")
+    private long retryAfterSeconds;
+
+    @Value("${revcart.outbox.max-backoff-minutes:60}")
+    private long maxBackoffMinutes;
+
+    @Value("${revcart.outbox.delivery-threads:4}")
+    private int deliveryThreads;
+
+    // Longer than any delivery should take; a lease that lapses means the delivering instance died.
+    @Value("${revcart.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    // Email and Mongo calls block, so they get their own threads. A full queue just drops the immediate
+    // attempt; the event is already stored and the poller delivers it once it is due.
+    private ThreadPoolExecutor deliveryExecutor;
+
+    @PostConstruct
+    public void startExecutor() {
+        deliveryExecutor = new ThreadPoolExecutor(deliveryThreads, deliveryThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1000), runnable -> {
+                Thread thread = new Thread(runnable, "outbox-delivery");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void stopExecutor() {
+        deliveryExecutor.shutdown();
+    }
+
+    // Must be called inside the transaction that produced the event; delivery starts once it commits.
+    public void enqueue(String eventType, Long aggregateId) {
+        OutboxEvent event = new OutboxEvent(eventType, aggregateId);
+        event.setNextAttemptAt(LocalDateTime.now().plusSeconds(retryAfterSeconds));
+        Long eventId = outboxRepository.save(event).getId();
+        AfterCommit.run(() -> deliveryExecutor.execute(() -> dispatch(eventId, eventType, aggregateId, 0)));
+    }
+
+    @Scheduled(fixedDelayString = "${revcart.outbox.poll-interval-ms:10000}")
+    public void dispatchPending() {
+        List<Long> ids = outboxRepository.findPendingIds(LocalDateTime.now(), maxAttempts, PageRequest.of(0, 100));
+        for (Long id : ids) {
+            outboxRepository.findById(id).ifPresent(event ->
+                dispatch(event.getId(), event.getEventType(), event.getAggregateId(), event.getAttempts()));
+        }
+    }
+
+    // Events that used up their attempts stay in the table until an admin revives them.
+    public int reviveDead() {
+        int revived = outboxRepository.reviveDead(maxAttempts, LocalDateTime.now());
+        if (revived > 0) System.out.println("[OutboxService] Revived " + revived + " dead outbox events");
+        return revived;
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+            "pending", outboxRepository.countByProcessedAtIsNull(),
+            "dead", outboxRepository.countByProcessedAtIsNullAndAttemptsGreaterThanEqual(maxAttempts)
+        );
+    }
+
+    // processed_at is only set once delivery succeeded, so an event whose instance dies mid-delivery is retried.
+    void dispatch(Long eventId, String eventType, Long aggregateId, int attempts) {
+        LocalDateTime now = LocalDateTime.now();
+        if (outboxRepository.claim(eventId, now, now.plusSeconds(leaseSeconds)) == 0) return;
+        try {
+            deliver(eventType, aggregateId);
+        } catch (RuntimeException e) {
+            String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            outboxRepository.release(eventId, error.length() > 500 ? error.substring(0, 500) : error,
+                LocalDateTime.now().plusSeconds(backoffSeconds(attempts)));
+            if (attempts + 1 >= maxAttempts) {
+                System.err.println("[OutboxService] Giving up on " + eventType + " for " + aggregateId + " after "
+                    + (attempts + 1) + " attempts: " + error);
+            } else {
+                System.err.println("[OutboxService] Delivery of " + eventType + " for " + aggregateId + " failed: " + error);
+            }
+            return;
+        }
+        outboxRepository.complete(eventId, LocalDateTime.now());
+    }
+
+    long backoffSeconds(int attempts) {
+        long cap = TimeUnit.MINUTES.toSeconds(maxBackoffMinutes);
+        return attempts >= 30 ? cap : Math.min(cap, retryAfterSeconds << attempts);
+    }
+
+    private void deliver(String eventType, Long aggregateId) {
+        if (ORDER_CONFIRMATION.equals(eventType)) {
+            Order order = orderRepository.findById(aggregateId)
+                .orElseThrow(() -> new IllegalStateException("Order " + aggregateId + " not found"));
+            notificationService.sendOrderConfirmation(order.getUser(), order);
+        } else if (ORDER_ANALYTICS.equals(eventType)) {
+            mongoAnalyticsService.applyOrder(aggregateId);
+        } else {
+            throw new IllegalStateException("Unknown outbox event type: " + eventType);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.revcart.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public final class Paise {
+
+    private Paise() {}
+
+    public static long of(BigDecimal rupees) {
+        return of(rupees, RoundingMode.HALF_UP);
+    }
+
+    public static long of(BigDecimal rupees, RoundingMode rounding) {
+        return rupees.movePointRight(2).setScale(0, rounding).longValueExact();
+    }
+
+    public static BigDecimal toRupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+}
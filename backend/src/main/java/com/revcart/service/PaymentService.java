@@ -16,13 +16,20 @@ public class PaymentService {
     private OrderService orderService;
     @Autowired
     private NotificationService notificationService;
+    @Autowired
+    private OrderExpiryTracker expiryTracker;
 
     public Payment createPayment(Order order, Payment.PaymentMethod method) {
         if (order == null || order.getTotalAmount() == null) {
             throw new RuntimeException("Invalid order or amount");
         }
         Payment payment = new Payment(order, order.getTotalAmount(), method);
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        // Only an online payment that is never completed should hand the reserved stock back; COD orders wait for delivery.
+        if (method != Payment.PaymentMethod.COD && order.getStatus() == Order.OrderStatus.PENDING && order.isStockReserved()) {
+            expiryTracker.track(order.getId(), saved.getCreatedAt());
+        }
+        return saved;
     }
 
     public Payment createPaymentForOrder(Long orderId, Payment.PaymentMethod method) {
@@ -39,14 +46,29 @@ public class PaymentService {
 
     public Payment processPayment(Long paymentId) {
         return paymentRepository.findById(paymentId).map(payment -> {
+            if (payment.getStatus() == Payment.PaymentStatus.SUCCESS) return payment;
             try {
                 payment.setTransactionId(UUID.randomUUID().toString());
                 payment.setStatus(Payment.PaymentStatus.SUCCESS);
                 payment.setGatewayResponse("Payment processed successfully");
                 Payment savedPayment = paymentRepository.save(payment);
-                
+
                 try {
                     orderService.updateOrderStatus(payment.getOrder().getId(), Order.OrderStatus.CONFIRMED);
+                } catch (RuntimeException orderError) {
+                    // The order expired or was cancelled while the payment was in flight, so its stock is gone: give the money back.
+                    payment.setStatus(Payment.PaymentStatus.REFUNDED);
+                    payment.setGatewayResponse("Refunded: " + orderError.getMessage());
+                    paymentRepository.save(payment);
+                    try {
+                        notificationService.sendRefundNotification(payment.getOrder().getUser(), payment);
+                    } catch (Exception notifError) {
+                        System.err.println("Notification error: " + notifError.getMessage());
+                    }
+                    throw orderError;
+                }
+
+                try {
                     notificationService.sendPaymentConfirmation(payment.getOrder().getUser(), payment);
                 } catch (Exception notifError) {
                     System.err.println("Notification error: " + notifError.getMessage());
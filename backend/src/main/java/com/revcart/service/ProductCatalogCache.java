@@ -0,0 +1,86 @@
+package com.revcart.service;
+
+import com.revcart.entity.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class ProductCatalogCache {
+
+    private static final String ALL = "all";
+    private static final int STRIPES = 64;
+
+    private final LruCache<Long, Product> productsById;
+    private final LruCache<String, List<Product>> productLists;
+    // Bumped by every invalidation. A fill takes the generation before its database read and is dropped if an
+    // invalidation ran in between, otherwise it would put back the row the invalidation just evicted.
+    private final long[] productGenerations = new long[STRIPES];
+    private long listGeneration;
+
+    public ProductCatalogCache(@Value("${revcart.catalog.cache.max-size:10000}") int maxSize,
+                               @Value("${revcart.catalog.cache.ttl-seconds:300}") long ttlSeconds) {
+        long ttlMillis = ttlSeconds * 1000;
+        this.productsById = new LruCache<>(maxSize, ttlMillis);
+        this.productLists = new LruCache<>(1, ttlMillis);
+    }
+
+    public Optional<Product> getProduct(Long id) {
+        return Optional.ofNullable(productsById.get(id));
+    }
+
+    public synchronized long productGeneration(Long id) {
+        return productGenerations[stripe(id)];
+    }
+
+    public synchronized boolean putProduct(Product product, long generation) {
+        if (productGenerations[stripe(product.getId())] != generation) return false;
+        productsById.put(product.getId(), product);
+        return true;
+    }
+
+    public Optional<List<Product>> getAllProducts() {
+        return Optional.ofNullable(productLists.get(ALL));
+    }
+
+    public synchronized long listGeneration() {
+        return listGeneration;
+    }
+
+    public synchronized boolean putAllProducts(List<Product> products, long generation) {
+        if (listGeneration != generation) return false;
+        productLists.put(ALL, Collections.unmodifiableList(products));
+        return true;
+    }
+
+    public synchronized void invalidate(Long productId) {
+        productGenerations[stripe(productId)]++;
+        listGeneration++;
+        productsById.invalidate(productId);
+        productLists.invalidateAll();
+    }
+
+    public synchronized void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            productGenerations[i]++;
+        }
+        listGeneration++;
+        productsById.invalidateAll();
+        productLists.invalidateAll();
+    }
+
+    private static int stripe(Long id) {
+        return Math.floorMod(id.hashCode(), STRIPES);
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+            "products", productsById.stats(),
+            "productLists", productLists.stats()
+        );
+    }
+}
@@ -0,0 +1,236 @@
+package com.revcart.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revcart.dto.ImportReport;
+import com.revcart.dto.ImportRowError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+public class ProductImportService {
+
+    static final String INSERT_SQL = "INSERT INTO products (name, category, price, unit, image, description, stock_quantity) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    static final String[] COLUMNS = {"name", "category", "price", "unit", "image", "description", "stockQuantity"};
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int DEFAULT_STOCK = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${revcart.import.batch-size:500}")
+    private int batchSize;
+
+    public ImportReport importFile(InputStream in, String filename) throws IOException {
+        return filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".csv") ? importCsv(in) : importJson(in);
+    }
+
+    public ImportReport importJson(InputStream in) throws IOException {
+        Session session = new Session();
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    token = parser.nextToken();
+                    if (field.equals("products") && token == JsonToken.START_ARRAY) break;
+                    parser.skipChildren();
+                    token = null;
+                }
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of products or an object with a \"products\" array");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode node = parser.readValueAsTree();
+                Map<String, String> fields = new HashMap<>();
+                for (String column : COLUMNS) {
+                    JsonNode value = node.get(column);
+                    if (value != null && !value.isNull()) fields.put(column, value.asText());
+                }
+                session.accept(fields);
+            }
+        }
+        return session.finish();
+    }
+
+    public ImportReport importCsv(InputStream in) throws IOException {
+        Session session = new Session();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) return session.finish();
+            List<String> header = parseCsvLine(headerLine);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                List<String> values = parseCsvLine(line);
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.size() && i < values.size(); i++) {
+                    fields.put(header.get(i).trim(), values.get(i));
+                }
+                session.accept(fields);
+            }
+        }
+        return session.finish();
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    static Object[] toRow(Map<String, String> fields) {
+        String name = required(fields, "name");
+        String category = required(fields, "category");
+        String unit = required(fields, "unit");
+
+        BigDecimal price;
+        try {
+            price = new BigDecimal(required(fields, "price").trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number");
+        }
+        if (price.signum() <= 0) throw new IllegalArgumentException("price must be positive");
+
+        int stock = DEFAULT_STOCK;
+        String stockValue = fields.get("stockQuantity");
+        if (stockValue != null && !stockValue.isBlank()) {
+            try {
+                stock = Integer.parseInt(stockValue.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("stockQuantity is not a whole number");
+            }
+            if (stock < 0) throw new IllegalArgumentException("stockQuantity must not be negative");
+        }
+
+        return new Object[]{name, category, price, unit, blankToNull(fields.get("image")), blankToNull(fields.get("description")), stock};
+    }
+
+    private static String required(Map<String, String> fields, String column) {
+        String value = fields.get(column);
+        if (value == null || value.isBlank()) throw new IllegalArgumentException(column + " is required");
+        return value.trim();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private class Session {
+        private final long startedAt = System.currentTimeMillis();
+        private final int chunkSize = Math.max(1, batchSize);
+        private final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        private List<Object[]> chunk = new ArrayList<>(chunkSize);
+        private List<Long> chunkRows = new ArrayList<>(chunkSize);
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+
+        void accept(Map<String, String> fields) {
+            rows++;
+            try {
+                chunk.add(toRow(fields));
+                chunkRows.add(rows);
+            } catch (IllegalArgumentException e) {
+                reject(rows, e.getMessage());
+            }
+            if (chunk.size() >= chunkSize) flush();
+        }
+
+        ImportReport finish() {
+            flush();
+            if (imported > 0) {
+                catalogCache.invalidateAll();
+                catalogVersion.bump(null);
+                searchIndex.rebuild();
+            }
+            return new ImportReport(rows, imported, failed, System.currentTimeMillis() - startedAt, errors);
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) return;
+            try {
+                transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, chunk));
+                imported += chunk.size();
+            } catch (DataAccessException batchFailure) {
+                // The chunk was rolled back; retry it row by row so one bad row only costs itself.
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        jdbcTemplate.update(INSERT_SQL, chunk.get(i));
+                        imported++;
+                    } catch (DataAccessException e) {
+                        reject(chunkRows.get(i), e.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            chunk = new ArrayList<>(chunkSize);
+            chunkRows = new ArrayList<>(chunkSize);
+        }
+
+        private void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowError(row, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,683 @@
+package com.revcart.service;
+
+import com.revcart.entity.Product;
+import com.revcart.repository.OrderItemRepository;
+import com.revcart.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Component
+public class ProductSearchIndex {
+
+    public enum Field { NAME, CATEGORY, DESCRIPTION }
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final int[] EMPTY = new int[0];
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_MATCH_WEIGHT = 0.5;
+    private static final double[] FIELD_BOOSTS = {3.0, 2.0, 1.0};
+    private static final int SUGGESTIONS_PER_NODE = 10;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final EnumMap<Field, TreeMap<String, PostingList>> postings = new EnumMap<>(Field.class);
+    private final Map<Long, Integer> docIdsByProduct = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final long[] totalFieldLengths = new long[Field.values().length];
+    private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+    private final Map<Long, Long> purchasesByProduct = new HashMap<>();
+    private final SuggestionTrie suggestions = new SuggestionTrie(SUGGESTIONS_PER_NODE);
+    private final BitSet liveDocs = new BitSet();
+    private final Map<String, BitSet> docsByCategory = new HashMap<>();
+    private final TreeMap<String, CategoryAggregate> categories = new TreeMap<>();
+    private final PriceColumn prices = new PriceColumn();
+    private final TrigramIndex nameTrigrams = new TrigramIndex();
+
+    public ProductSearchIndex() {
+        for (Field field : Field.values()) {
+            postings.put(field, new TreeMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Object[] row : orderItemRepository.sumQuantityByProduct()) {
+                purchasesByProduct.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            int page = 0;
+            Page<Product> batch;
+            do {
+                batch = productRepository.findAll(PageRequest.of(page++, REBUILD_PAGE_SIZE, Sort.by("id")));
+                batch.forEach(this::indexLocked);
+            } while (batch.hasNext());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        if (product == null || product.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            indexLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, Field... fields) {
+        List<String> tokens = tokenize(query);
+        lock.readLock().lock();
+        try {
+            if (tokens.isEmpty()) {
+                return allProductIdsLocked();
+            }
+            return toProductIds(matchLocked(tokens, fields));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void recordPurchase(Long productId, int quantity) {
+        if (productId == null || quantity <= 0) return;
+        lock.writeLock().lock();
+        try {
+            purchasesByProduct.merge(productId, (long) quantity, Long::sum);
+            Integer docId = docIdsByProduct.get(productId);
+            if (docId != null) {
+                adjustSuggestions(docs.get(docId), quantity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<SuggestionTrie.Completion> suggest(String prefix, int limit) {
+        String key = SuggestionTrie.normalize(prefix);
+        if (key.isEmpty() || limit <= 0) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<SuggestionTrie.Completion> top = suggestions.lookup(key);
+            return new ArrayList<>(top.subList(0, Math.min(limit, top.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public FacetResult filter(String query, Long minPaise, Long maxPaise, String category) {
+        List<String> tokens = tokenize(query);
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) liveDocs.clone();
+            if (!tokens.isEmpty()) {
+                matches.and(toBitSet(matchLocked(tokens, Field.NAME, Field.CATEGORY)));
+            }
+            if (minPaise != null || maxPaise != null) {
+                matches.and(prices.docsBetween(minPaise == null ? Long.MIN_VALUE : minPaise,
+                    maxPaise == null ? Long.MAX_VALUE : maxPaise));
+            }
+
+            Map<String, Integer> categoryCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            docsByCategory.forEach((key, categoryDocs) -> {
+                BitSet counted = (BitSet) categoryDocs.clone();
+                counted.and(matches);
+                if (!counted.isEmpty()) {
+                    categoryCounts.put(categories.get(key).label, counted.cardinality());
+                }
+            });
+
+            if (category != null) {
+                matches.and(docsByCategory.getOrDefault(category.toLowerCase(Locale.ROOT), new BitSet()));
+            }
+            return new FacetResult(toProductIds(matches.stream().toArray()), categoryCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<CategoryStats> categoryStats() {
+        lock.readLock().lock();
+        try {
+            List<CategoryStats> stats = new ArrayList<>(categories.size());
+            for (CategoryAggregate aggregate : categories.values()) {
+                stats.add(aggregate.snapshot());
+            }
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> fuzzySearch(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> distances = null;
+            for (String token : tokens) {
+                Map<Integer, Integer> tokenDistances = new HashMap<>();
+                nameTrigrams.match(token, TrigramIndex.maxEditsFor(token)).forEach((term, distance) -> {
+                    PostingList list = postings.get(Field.NAME).get(term);
+                    for (int i = 0; i < list.size; i++) {
+                        tokenDistances.merge(list.docs[i], distance, Math::min);
+                    }
+                });
+                if (distances == null) {
+                    distances = tokenDistances;
+                } else {
+                    distances.keySet().retainAll(tokenDistances.keySet());
+                    distances.replaceAll((docId, distance) -> distance + tokenDistances.get(docId));
+                }
+                if (distances.isEmpty()) break;
+            }
+
+            return distances.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> docs.get(entry.getKey()).productId)
+                .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Hit> rank(String query, int limit, Hit after) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] candidates = matchLocked(tokens, Field.values());
+            if (candidates.length == 0) return new ArrayList<>();
+            double[] scores = scoreLocked(tokens, candidates);
+
+            PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (int i = 0; i < candidates.length; i++) {
+                Hit hit = new Hit(docs.get(candidates[i]).productId, scores[i]);
+                if (after != null && RANKING.compare(hit, after) <= 0) continue;
+                if (heap.size() < limit) {
+                    heap.add(hit);
+                } else if (RANKING.compare(hit, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(hit);
+                }
+            }
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countMatches(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) return 0;
+        lock.readLock().lock();
+        try {
+            return matchLocked(tokens, Field.values()).length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> allProductIds() {
+        lock.readLock().lock();
+        try {
+            return allProductIdsLocked();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdsByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void clear() {
+        postings.values().forEach(TreeMap::clear);
+        docIdsByProduct.clear();
+        docs.clear();
+        Arrays.fill(totalFieldLengths, 0);
+        freeDocIds.clear();
+        purchasesByProduct.clear();
+        suggestions.clear();
+        liveDocs.clear();
+        docsByCategory.clear();
+        categories.clear();
+        prices.clear();
+        nameTrigrams.clear();
+    }
+
+    private void indexLocked(Product product) {
+        removeLocked(product.getId());
+
+        int docId = freeDocIds.isEmpty() ? docs.size() : freeDocIds.pop();
+        String[][] docTerms = new String[Field.values().length][];
+        int[] docLengths = new int[Field.values().length];
+        for (Field field : Field.values()) {
+            List<String> tokens = tokenize(fieldValue(product, field));
+            Map<String, Integer> frequencies = new LinkedHashMap<>();
+            tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+
+            docTerms[field.ordinal()] = frequencies.keySet().toArray(new String[0]);
+            docLengths[field.ordinal()] = tokens.size();
+            totalFieldLengths[field.ordinal()] += tokens.size();
+            TreeMap<String, PostingList> fieldPostings = postings.get(field);
+            frequencies.forEach((term, freq) -> fieldPostings.computeIfAbsent(term, t -> newPostingList(field, t)).add(docId, freq));
+        }
+
+        Long pricePaise = product.getPrice() == null ? null : Paise.of(product.getPrice());
+        Doc doc = new Doc(product.getId(), product.getName(), product.getCategory(), pricePaise, docTerms, docLengths);
+        if (docId == docs.size()) {
+            docs.add(doc);
+        } else {
+            docs.set(docId, doc);
+        }
+        docIdsByProduct.put(product.getId(), docId);
+        liveDocs.set(docId);
+        if (doc.category != null) {
+            String key = doc.category.toLowerCase(Locale.ROOT);
+            docsByCategory.computeIfAbsent(key, k -> new BitSet()).set(docId);
+            categories.computeIfAbsent(key, k -> new CategoryAggregate(doc.category)).add(pricePaise);
+        }
+        if (pricePaise != null) {
+            prices.add(pricePaise, docId);
+        }
+        adjustSuggestions(doc, 1 + purchasesByProduct.getOrDefault(product.getId(), 0L));
+    }
+
+    private void removeLocked(Long productId) {
+        Integer docId = docIdsByProduct.remove(productId);
+        if (docId == null) return;
+
+        Doc doc = docs.get(docId);
+        adjustSuggestions(doc, -(1 + purchasesByProduct.getOrDefault(productId, 0L)));
+        for (Field field : Field.values()) {
+            totalFieldLengths[field.ordinal()] -= doc.lengths[field.ordinal()];
+            TreeMap<String, PostingList> fieldPostings = postings.get(field);
+            for (String term : doc.terms[field.ordinal()]) {
+                PostingList list = fieldPostings.get(term);
+                if (list != null && list.remove(docId) && list.size == 0) {
+                    fieldPostings.remove(term);
+                    if (field == Field.NAME) nameTrigrams.remove(term);
+                }
+            }
+        }
+        liveDocs.clear(docId);
+        if (doc.category != null) {
+            String key = doc.category.toLowerCase(Locale.ROOT);
+            BitSet categoryDocs = docsByCategory.get(key);
+            categoryDocs.clear(docId);
+            if (categoryDocs.isEmpty()) {
+                docsByCategory.remove(key);
+                categories.remove(key);
+            } else {
+                categories.get(key).remove(doc.pricePaise);
+            }
+        }
+        if (doc.pricePaise != null) {
+            prices.remove(doc.pricePaise, docId);
+        }
+        docs.set(docId, null);
+        freeDocIds.push(docId);
+    }
+
+    private PostingList newPostingList(Field field, String term) {
+        if (field == Field.NAME) nameTrigrams.add(term);
+        return new PostingList();
+    }
+
+    private void adjustSuggestions(Doc doc, long delta) {
+        suggestions.adjust(doc.name, SuggestionTrie.PRODUCT, delta);
+        suggestions.adjust(doc.category, SuggestionTrie.CATEGORY, delta);
+    }
+
+    private int[] matchLocked(List<String> tokens, Field... fields) {
+        int[] result = null;
+        for (String token : tokens) {
+            int[] tokenDocs = prefixDocsLocked(token, fields);
+            result = result == null ? tokenDocs : intersect(result, tokenDocs);
+            if (result.length == 0) break;
+        }
+        return result == null ? EMPTY : result;
+    }
+
+    private int[] prefixDocsLocked(String prefix, Field... fields) {
+        List<PostingList> lists = new ArrayList<>();
+        int total = 0;
+        for (Field field : fields) {
+            for (PostingList list : postingsWithPrefix(field, prefix).values()) {
+                lists.add(list);
+                total += list.size;
+            }
+        }
+        if (lists.size() == 1) {
+            return lists.get(0).toArray();
+        }
+        int[] merged = new int[total];
+        int offset = 0;
+        for (PostingList list : lists) {
+            System.arraycopy(list.docs, 0, merged, offset, list.size);
+            offset += list.size;
+        }
+        Arrays.sort(merged);
+        return dedupe(merged);
+    }
+
+    private double[] scoreLocked(List<String> tokens, int[] candidates) {
+        double[] scores = new double[candidates.length];
+        int docCount = docIdsByProduct.size();
+        for (Field field : Field.values()) {
+            int f = field.ordinal();
+            double avgLength = docCount == 0 ? 0 : (double) totalFieldLengths[f] / docCount;
+            for (String token : tokens) {
+                for (Map.Entry<String, PostingList> entry : postingsWithPrefix(field, token).entrySet()) {
+                    PostingList list = entry.getValue();
+                    double weight = FIELD_BOOSTS[f] * idf(docCount, list.size)
+                        * (entry.getKey().equals(token) ? 1.0 : PREFIX_MATCH_WEIGHT);
+                    int i = 0, j = 0;
+                    while (i < candidates.length && j < list.size) {
+                        if (candidates[i] < list.docs[j]) i++;
+                        else if (candidates[i] > list.docs[j]) j++;
+                        else {
+                            int length = docs.get(candidates[i]).lengths[f];
+                            double norm = avgLength == 0 ? 1 : 1 - B + B * length / avgLength;
+                            int tf = list.freqs[j];
+                            scores[i] += weight * tf * (K1 + 1) / (tf + K1 * norm);
+                            i++;
+                            j++;
+                        }
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+    private SortedMap<String, PostingList> postingsWithPrefix(Field field, String prefix) {
+        return postings.get(field).subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static double idf(int docCount, int docFrequency) {
+        return Math.log(1 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+
+    private List<Long> allProductIdsLocked() {
+        return toProductIds(docIdsByProduct.values().stream().mapToInt(Integer::intValue).sorted().toArray());
+    }
+
+    private List<Long> toProductIds(int[] docIds) {
+        List<Long> ids = new ArrayList<>(docIds.length);
+        for (int doc : docIds) {
+            ids.add(docs.get(doc).productId);
+        }
+        return ids;
+    }
+
+    private static String fieldValue(Product product, Field field) {
+        return switch (field) {
+            case NAME -> product.getName();
+            case CATEGORY -> product.getCategory();
+            case DESCRIPTION -> product.getDescription();
+        };
+    }
+
+    private static BitSet toBitSet(int[] docIds) {
+        BitSet bits = new BitSet();
+        for (int docId : docIds) {
+            bits.set(docId);
+        }
+        return bits;
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] dedupe(int[] sorted) {
+        if (sorted.length == 0) return sorted;
+        int n = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[n - 1]) sorted[n++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::getScore).reversed()
+        .thenComparingLong(Hit::getProductId);
+
+    public static final class Hit {
+        private final long productId;
+        private final double score;
+
+        public Hit(long productId, double score) {
+            this.productId = productId;
+            this.score = score;
+        }
+
+        public long getProductId() { return productId; }
+        public double getScore() { return score; }
+    }
+
+    public static final class FacetResult {
+        private final List<Long> productIds;
+        private final Map<String, Integer> categoryCounts;
+
+        public FacetResult(List<Long> productIds, Map<String, Integer> categoryCounts) {
+            this.productIds = productIds;
+            this.categoryCounts = categoryCounts;
+        }
+
+        public List<Long> getProductIds() { return productIds; }
+        public Map<String, Integer> getCategoryCounts() { return categoryCounts; }
+    }
+
+    public static final class CategoryStats {
+        private final String name;
+        private final int productCount;
+        private final Long minPaise;
+        private final Long maxPaise;
+
+        public CategoryStats(String name, int productCount, Long minPaise, Long maxPaise) {
+            this.name = name;
+            this.productCount = productCount;
+            this.minPaise = minPaise;
+            this.maxPaise = maxPaise;
+        }
+
+        public String getName() { return name; }
+        public int getProductCount() { return productCount; }
+        public Long getMinPaise() { return minPaise; }
+        public Long getMaxPaise() { return maxPaise; }
+    }
+
+    private static final class CategoryAggregate {
+        private final String label;
+        private final TreeMap<Long, Integer> prices = new TreeMap<>();
+        private int count;
+
+        CategoryAggregate(String label) {
+            this.label = label;
+        }
+
+        void add(Long pricePaise) {
+            count++;
+            if (pricePaise != null) prices.merge(pricePaise, 1, Integer::sum);
+        }
+
+        void remove(Long pricePaise) {
+            count--;
+            if (pricePaise != null) prices.computeIfPresent(pricePaise, (price, n) -> n == 1 ? null : n - 1);
+        }
+
+        CategoryStats snapshot() {
+            return prices.isEmpty()
+                ? new CategoryStats(label, count, null, null)
+                : new CategoryStats(label, count, prices.firstKey(), prices.lastKey());
+        }
+    }
+
+    private static final class PriceColumn {
+        private long[] prices = new long[64];
+        private int[] docIds = new int[64];
+        private int size;
+
+        void add(long price, int docId) {
+            int pos = position(price, docId);
+            if (size == prices.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+                docIds = Arrays.copyOf(docIds, size * 2);
+            }
+            System.arraycopy(prices, pos, prices, pos + 1, size - pos);
+            System.arraycopy(docIds, pos, docIds, pos + 1, size - pos);
+            prices[pos] = price;
+            docIds[pos] = docId;
+            size++;
+        }
+
+        void remove(long price, int docId) {
+            int pos = position(price, docId);
+            if (pos == size || prices[pos] != price || docIds[pos] != docId) return;
+            System.arraycopy(prices, pos + 1, prices, pos, size - pos - 1);
+            System.arraycopy(docIds, pos + 1, docIds, pos, size - pos - 1);
+            size--;
+        }
+
+        BitSet docsBetween(long min, long max) {
+            BitSet bits = new BitSet();
+            int to = max == Long.MAX_VALUE ? size : position(max + 1, Integer.MIN_VALUE);
+            for (int i = position(min, Integer.MIN_VALUE); i < to; i++) {
+                bits.set(docIds[i]);
+            }
+            return bits;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        private int position(long price, int docId) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (prices[mid] < price || (prices[mid] == price && docIds[mid] < docId)) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    private static final class Doc {
+        private final long productId;
+        private final String name;
+        private final String category;
+        private final Long pricePaise;
+        private final String[][] terms;
+        private final int[] lengths;
+
+        Doc(long productId, String name, String category, Long pricePaise, String[][] terms, int[] lengths) {
+            this.productId = productId;
+            this.name = name;
+            this.category = category;
+            this.pricePaise = pricePaise;
+            this.terms = terms;
+            this.lengths = lengths;
+        }
+    }
+
+    static final class PostingList {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int docId, int freq) {
+            int pos = Arrays.binarySearch(docs, 0, size, docId);
+            if (pos >= 0) {
+                freqs[pos] = freq;
+                return;
+            }
+            pos = -pos - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+            System.arraycopy(freqs, pos, freqs, pos + 1, size - pos);
+            docs[pos] = docId;
+            freqs[pos] = freq;
+            size++;
+        }
+
+        boolean remove(int docId) {
+            int pos = Arrays.binarySearch(docs, 0, size, docId);
+            if (pos < 0) return false;
+            System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+            System.arraycopy(freqs, pos + 1, freqs, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(docs, size);
+        }
+    }
+}
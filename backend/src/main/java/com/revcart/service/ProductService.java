@@ -1,23 +1,115 @@
 package com.revcart.service;
 
+import com.revcart.dto.CategorySummary;
+import com.revcart.dto.ProductCard;
+import com.revcart.dto.ProductPage;
 import com.revcart.entity.Product;
 import com.revcart.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class ProductService {
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CartStore cartStore;
+
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        Optional<List<Product>> cached = catalogCache.getAllProducts();
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long generation = catalogCache.listGeneration();
+        List<Product> products = productRepository.findAll();
+        catalogCache.putAllProducts(products, generation);
+        return products;
+    }
+
+    public ProductPage listProducts(String sort, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        String[] after = decodeCursor(cursor);
+        List<ProductCard> cards;
+        try {
+            cards = switch (sort) {
+                case "id" -> after == null
+                        ? productRepository.findCardsOrderById(page)
+                        : productRepository.findCardsAfterId(Long.parseLong(after[0]), page);
+                case "price" -> after == null
+                        ? productRepository.findCardsOrderByPrice(page)
+                        : productRepository.findCardsAfterPrice(new BigDecimal(after[0]), Long.parseLong(after[1]), page);
+                case "price_desc" -> after == null
+                        ? productRepository.findCardsOrderByPriceDesc(page)
+                        : productRepository.findCardsBeforePrice(new BigDecimal(after[0]), Long.parseLong(after[1]), page);
+                default -> throw new IllegalArgumentException("Unsupported sort: " + sort);
+            };
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+
+        if (cards.size() <= pageSize) {
+            return new ProductPage(cards, null);
+        }
+        cards = cards.subList(0, pageSize);
+        ProductCard last = cards.get(pageSize - 1);
+        String position = sort.equals("id") ? String.valueOf(last.getId()) : last.getPrice().toPlainString() + ":" + last.getId();
+        return new ProductPage(new ArrayList<>(cards), encodeCursor(position));
     }
 
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        Optional<Product> cached = catalogCache.getProduct(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = catalogCache.productGeneration(id);
+        Optional<Product> product = productRepository.findById(id);
+        product.ifPresent(found -> catalogCache.putProduct(found, generation));
+        return product;
+    }
+
+    public Map<Long, Product> getProductsByIds(Collection<Long> ids) {
+        Map<Long, Product> products = new HashMap<>();
+        Map<Long, Long> missing = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Optional<Product> cached = catalogCache.getProduct(id);
+            if (cached.isPresent()) {
+                products.put(id, cached.get());
+            } else {
+                missing.put(id, catalogCache.productGeneration(id));
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findAllById(missing.keySet())) {
+                catalogCache.putProduct(product, missing.get(product.getId()));
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
     }
 
     public List<Product> getProductsByCategory(String category) {
@@ -29,7 +121,11 @@ public class ProductService {
     }
 
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogCache.invalidate(saved.getId());
+        catalogVersion.bump(saved.getId());
+        searchIndex.index(saved);
+        return saved;
     }
 
     public Product updateProduct(Long id, Product productDetails) {
@@ -41,18 +137,66 @@ public class ProductService {
             product.setImage(productDetails.getImage());
             product.setDescription(productDetails.getDescription());
             product.setStockQuantity(productDetails.getStockQuantity());
-            return productRepository.save(product);
+            Product saved = productRepository.save(product);
+            catalogCache.invalidate(id);
+            catalogVersion.bump(id);
+            searchIndex.index(saved);
+            cartStore.reprice(id, Paise.of(saved.getPrice()));
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Product not found"));
     }
 
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        catalogCache.invalidate(id);
+        catalogVersion.bump(id);
+        searchIndex.remove(id);
+        cartStore.removeProduct(id);
+    }
+
+    public void stockChanged(Collection<Long> productIds) {
+        for (Long id : productIds) {
+            catalogCache.invalidate(id);
+            catalogVersion.bump(id);
+        }
     }
 
     public List<String> getAllCategories() {
-        return productRepository.findAll().stream()
-                .map(Product::getCategory)
-                .distinct()
+        return searchIndex.categoryStats().stream()
+                .map(ProductSearchIndex.CategoryStats::getName)
+                .toList();
+    }
+
+    public List<CategorySummary> getCategorySummaries() {
+        return searchIndex.categoryStats().stream()
+                .map(stats -> new CategorySummary(stats.getName(), stats.getProductCount(),
+                        stats.getMinPaise() == null ? null : Paise.toRupees(stats.getMinPaise()),
+                        stats.getMaxPaise() == null ? null : Paise.toRupees(stats.getMaxPaise())))
                 .toList();
     }
+
+    public CatalogVersion.Stamp getCatalogVersion() {
+        return catalogVersion.catalog();
+    }
+
+    public CatalogVersion.Stamp getProductVersion(Long id) {
+        return catalogVersion.product(id);
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return catalogCache.stats();
+    }
+
+    private String encodeCursor(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
 }
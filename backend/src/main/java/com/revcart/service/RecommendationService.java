@@ -1,7 +1,6 @@
 package com.revcart.service;
 
 import com.revcart.entity.Order;
-import com.revcart.entity.OrderItem;
 import com.revcart.entity.Product;
 import com.revcart.entity.User;
 import com.revcart.repository.OrderRepository;
@@ -20,6 +19,12 @@ public class RecommendationService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private HeavyHitterTracker heavyHitters;
+
     public List<Product> getRecommendationsForUser(User user) {
         List<Order> userOrders = orderRepository.findByUser(user);
         
@@ -35,18 +40,10 @@ public class RecommendationService {
     }
 
     public List<Product> getPopularProducts() {
-        Map<Long, Integer> productFrequency = new HashMap<>();
-        
-        orderRepository.findAll().forEach(order -> 
-            order.getOrderItems().forEach(item -> 
-                productFrequency.merge(item.getProduct().getId(), 1, Integer::sum)
-            )
-        );
-
-        return productFrequency.entrySet().stream()
-            .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-            .limit(10)
-            .map(entry -> productRepository.findById(entry.getKey()).orElse(null))
+        Map<Long, Long> top = heavyHitters.topProducts(HeavyHitterTracker.Window.WEEK, 10);
+        Map<Long, Product> products = productService.getProductsByIds(top.keySet());
+        return top.keySet().stream()
+            .map(products::get)
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
     }
@@ -0,0 +1,48 @@
+package com.revcart.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// A sliding window of Space-Saving sketches, one per time slice; slices that fall out of the window are reused,
+// so memory stays at slices * capacity counters however many events arrive.
+public class RollingTopK<K> {
+
+    private final long sliceMs;
+    private final int capacity;
+    private final SpaceSaving<K>[] sketches;
+    private final long[] sliceIds;
+    private long latestSlice = Long.MIN_VALUE;
+
+    @SuppressWarnings("unchecked")
+    public RollingTopK(long windowMs, int slices, int capacity) {
+        if (windowMs <= 0 || slices <= 0) throw new IllegalArgumentException("window and slices must be positive");
+        this.sliceMs = Math.max(1, windowMs / slices);
+        this.capacity = capacity;
+        this.sketches = new SpaceSaving[slices];
+        this.sliceIds = new long[slices];
+        Arrays.fill(sliceIds, Long.MIN_VALUE);
+    }
+
+    public synchronized void offer(K key, long weight, long atMs) {
+        long slice = Math.floorDiv(atMs, sliceMs);
+        if (latestSlice != Long.MIN_VALUE && slice <= latestSlice - sketches.length) return;
+        latestSlice = Math.max(latestSlice, slice);
+        int slot = (int) Math.floorMod(slice, (long) sketches.length);
+        if (sliceIds[slot] != slice) {
+            sketches[slot] = new SpaceSaving<>(capacity);
+            sliceIds[slot] = slice;
+        }
+        sketches[slot].offer(key, weight);
+    }
+
+    public synchronized Map<K, Long> top(int k, long nowMs) {
+        long current = Math.floorDiv(nowMs, sliceMs);
+        Map<K, Long> merged = new HashMap<>();
+        for (int i = 0; i < sketches.length; i++) {
+            if (sketches[i] == null || sliceIds[i] > current || sliceIds[i] <= current - sketches.length) continue;
+            sketches[i].counts().forEach((key, count) -> merged.merge(key, count, Long::sum));
+        }
+        return SpaceSaving.topOf(merged, k);
+    }
+}
@@ -0,0 +1,245 @@
+package com.revcart.service;
+
+import com.revcart.dto.DailyStatusTotals;
+import com.revcart.entity.Order;
+import com.revcart.entity.SalesRollup;
+import com.revcart.repository.OrderRepository;
+import com.revcart.repository.SalesRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+public class SalesRollupService {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO sales_rollups (period_type, bucket_start, status, order_count, revenue_paise) VALUES (?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+        "revenue_paise = revenue_paise + VALUES(revenue_paise)";
+    private static final String INSERT_DELTA_SQL =
+        "INSERT INTO sales_rollup_deltas (bucket_day, status, order_delta, revenue_delta) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_DELTAS_SQL =
+        "SELECT id, bucket_day, status, order_delta, revenue_delta FROM sales_rollup_deltas ORDER BY id LIMIT ?";
+    private static final String DELETE_DELTA_SQL = "DELETE FROM sales_rollup_deltas WHERE id = ?";
+    private static final String SELECT_DELTA_IDS_SQL = "SELECT id FROM sales_rollup_deltas";
+
+    @Autowired
+    private SalesRollupRepository rollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${revcart.analytics.rollup-flush-batch:5000}")
+    private int flushBatch;
+
+    private long flushes;
+    private long flushFailures;
+    private LocalDateTime lastBackfill;
+
+    public void recordCreated(Order order) {
+        record(order, order.getStatus(), 1);
+    }
+
+    public void recordStatusChange(Order order, Order.OrderStatus from, Order.OrderStatus to) {
+        if (from == null || from == to) return;
+        record(order, from, -1);
+        record(order, to, 1);
+    }
+
+    // Appends to the delta log inside the caller's transaction, so a rolled-back order leaves no trace and a crash
+    // loses nothing. Checkouts only ever insert; the hot day/month rows are touched by the flusher alone.
+    private void record(Order order, Order.OrderStatus status, int sign) {
+        if (order.getOrderDate() == null || status == null) return;
+        long paise = order.getTotalAmount() == null ? 0 : Paise.of(order.getTotalAmount());
+        jdbcTemplate.update(INSERT_DELTA_SQL, Date.valueOf(order.getOrderDate().toLocalDate()), status.name(), sign, sign * paise);
+    }
+
+    @Scheduled(fixedDelayString = "${revcart.analytics.rollup-flush-ms:2000}")
+    public synchronized void flush() {
+        try {
+            Integer applied;
+            do {
+                applied = new TransactionTemplate(transactionManager).execute(status -> applyDeltas());
+                if (applied != null && applied > 0) flushes++;
+            } while (applied != null && applied >= flushBatch);
+        } catch (RuntimeException e) {
+            flushFailures++;
+            System.err.println("[SalesRollupService] Failed to flush rollup deltas, will retry: " + e.getMessage());
+        }
+    }
+
+    // Folds the oldest deltas into the rollups and deletes exactly the rows it read, in one transaction.
+    private int applyDeltas() {
+        List<Long> ids = new ArrayList<>();
+        Map<Bucket, long[]> batch = new HashMap<>();
+        jdbcTemplate.query(SELECT_DELTAS_SQL, (RowCallbackHandler) rs -> {
+            ids.add(rs.getLong(1));
+            LocalDate day = rs.getDate(2).toLocalDate();
+            Order.OrderStatus status = Order.OrderStatus.valueOf(rs.getString(3));
+            merge(batch, new Bucket(SalesRollup.Period.DAY, day, status), rs.getLong(4), rs.getLong(5));
+            merge(batch, new Bucket(SalesRollup.Period.MONTH, day.withDayOfMonth(1), status), rs.getLong(4), rs.getLong(5));
+        }, flushBatch);
+        if (ids.isEmpty()) return 0;
+        batch.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0);
+        upsert(batch);
+        jdbcTemplate.batchUpdate(DELETE_DELTA_SQL, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+        return ids.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() == 0 && orderRepository.count() > 0) {
+            backfill();
+        }
+    }
+
+    // Rebuilds every bucket from order history. The delta ids and the order summary come from one REPEATABLE READ
+    // snapshot, so exactly the deltas already reflected in the summary are dropped. Deltas committed after the
+    // snapshot are left for the flusher; a blanket DELETE would see them too and lose those orders.
+    public synchronized int backfill() {
+        Map<Bucket, long[]> totals = new HashMap<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        transaction.executeWithoutResult(status -> {
+            List<Long> seen = jdbcTemplate.queryForList(SELECT_DELTA_IDS_SQL, Long.class);
+            for (DailyStatusTotals day : orderRepository.summarizeByDayAndStatus()) {
+                long paise = Paise.of(day.getRevenue());
+                merge(totals, new Bucket(SalesRollup.Period.DAY, day.getDay(), day.getStatus()), day.getOrders(), paise);
+                merge(totals, new Bucket(SalesRollup.Period.MONTH, day.getDay().withDayOfMonth(1), day.getStatus()),
+                    day.getOrders(), paise);
+            }
+            if (!seen.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_DELTA_SQL, seen, seen.size(), (ps, id) -> ps.setLong(1, id));
+            }
+            rollupRepository.deleteAllInBatch();
+            upsert(totals);
+        });
+        lastBackfill = LocalDateTime.now();
+        System.out.println("[SalesRollupService] Backfilled " + totals.size() + " rollup buckets from order history");
+        return totals.size();
+    }
+
+    public Totals total() {
+        Totals total = new Totals();
+        rollupRepository.findByPeriod(SalesRollup.Period.MONTH).forEach(total::add);
+        return total;
+    }
+
+    public Map<LocalDate, Totals> daily(int days) {
+        LocalDate from = LocalDate.now().minusDays(days - 1);
+        Map<LocalDate, Totals> series = new LinkedHashMap<>();
+        for (int i = 0; i < days; i++) {
+            series.put(from.plusDays(i), new Totals());
+        }
+        return fill(series, SalesRollup.Period.DAY, from);
+    }
+
+    public Map<LocalDate, Totals> monthly(int months) {
+        LocalDate from = LocalDate.now().withDayOfMonth(1).minusMonths(months - 1);
+        Map<LocalDate, Totals> series = new LinkedHashMap<>();
+        for (int i = 0; i < months; i++) {
+            series.put(from.plusMonths(i), new Totals());
+        }
+        return fill(series, SalesRollup.Period.MONTH, from);
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Long pendingDeltas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales_rollup_deltas", Long.class);
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingDeltas", pendingDeltas == null ? 0L : pendingDeltas);
+        stats.put("flushes", flushes);
+        stats.put("flushFailures", flushFailures);
+        stats.put("lastBackfill", lastBackfill == null ? "never" : lastBackfill.toString());
+        return stats;
+    }
+
+    private Map<LocalDate, Totals> fill(Map<LocalDate, Totals> series, SalesRollup.Period period, LocalDate from) {
+        for (SalesRollup rollup : rollupRepository.findByPeriodAndBucketStartGreaterThanEqual(period, from)) {
+            Totals bucket = series.get(rollup.getBucketStart());
+            if (bucket != null) bucket.add(rollup);
+        }
+        return series;
+    }
+
+    private void upsert(Map<Bucket, long[]> deltas) {
+        if (deltas.isEmpty()) return;
+        List<Map.Entry<Bucket, long[]>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.getKey().period.name());
+            ps.setDate(2, Date.valueOf(row.getKey().start));
+            ps.setString(3, row.getKey().status.name());
+            ps.setLong(4, row.getValue()[0]);
+            ps.setLong(5, row.getValue()[1]);
+        });
+    }
+
+    private static void merge(Map<Bucket, long[]> target, Bucket bucket, long orders, long paise) {
+        long[] delta = target.computeIfAbsent(bucket, key -> new long[2]);
+        delta[0] += orders;
+        delta[1] += paise;
+    }
+
+    public static final class Totals {
+        private long orders;
+        private long revenuePaise;
+        private final Map<Order.OrderStatus, Long> statusCounts = new EnumMap<>(Order.OrderStatus.class);
+
+        void add(SalesRollup rollup) {
+            orders += rollup.getOrderCount();
+            revenuePaise += rollup.getRevenuePaise();
+            statusCounts.merge(rollup.getStatus(), rollup.getOrderCount(), Long::sum);
+        }
+
+        public long getOrders() { return orders; }
+        public long getRevenuePaise() { return revenuePaise; }
+        public long count(Order.OrderStatus status) { return statusCounts.getOrDefault(status, 0L); }
+    }
+
+    private static final class Bucket {
+        private final SalesRollup.Period period;
+        private final LocalDate start;
+        private final Order.OrderStatus status;
+
+        Bucket(SalesRollup.Period period, LocalDate start, Order.OrderStatus status) {
+            this.period = period;
+            this.start = start;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Bucket other)) return false;
+            return period == other.period && start.equals(other.start) && status == other.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(period, start, status);
+        }
+    }
+}
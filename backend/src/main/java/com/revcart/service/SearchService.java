@@ -1,37 +1,69 @@
 package com.revcart.service;
 
+import com.revcart.dto.FacetedSearchResult;
+import com.revcart.dto.SearchPage;
+import com.revcart.dto.Suggestion;
 import com.revcart.entity.Product;
 import com.revcart.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class SearchService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 10;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
     public List<Product> searchProducts(String query) {
-        return productRepository.findAll().stream()
-            .filter(p -> p.getName().toLowerCase().contains(query.toLowerCase()) ||
-                        p.getCategory().toLowerCase().contains(query.toLowerCase()) ||
-                        p.getDescription().toLowerCase().contains(query.toLowerCase()))
+        return loadInOrder(searchIndex.search(query,
+            ProductSearchIndex.Field.NAME, ProductSearchIndex.Field.CATEGORY, ProductSearchIndex.Field.DESCRIPTION));
+    }
+
+    public SearchPage rankedSearch(String query, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<ProductSearchIndex.Hit> hits = searchIndex.rank(query, pageSize + 1, decodeCursor(cursor));
+        boolean hasMore = hits.size() > pageSize;
+        if (hasMore) {
+            hits = hits.subList(0, pageSize);
+        }
+
+        List<Long> ids = hits.stream().map(ProductSearchIndex.Hit::getProductId).collect(Collectors.toList());
+        String nextCursor = hasMore ? encodeCursor(hits.get(hits.size() - 1)) : null;
+        return new SearchPage(loadInOrder(ids), searchIndex.countMatches(query), nextCursor);
+    }
+
+    public List<Product> fuzzySearch(String query, int limit) {
+        return loadInOrder(searchIndex.fuzzySearch(query, Math.max(1, Math.min(limit, MAX_PAGE_SIZE))));
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return searchIndex.suggest(prefix, Math.min(limit, MAX_SUGGESTIONS)).stream()
+            .map(c -> new Suggestion(c.getText(), c.getType()))
             .collect(Collectors.toList());
     }
 
     public List<Product> filterByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return productRepository.findAll().stream()
-            .filter(p -> p.getPrice().compareTo(minPrice) >= 0 && p.getPrice().compareTo(maxPrice) <= 0)
-            .collect(Collectors.toList());
+        return loadInOrder(facets(null, minPrice, maxPrice, null).getProductIds());
     }
 
     public List<Product> filterByCategory(String category) {
-        return productRepository.findAll().stream()
-            .filter(p -> p.getCategory().equalsIgnoreCase(category))
-            .collect(Collectors.toList());
+        return loadInOrder(facets(null, null, null, category).getProductIds());
     }
 
     public List<Product> getTrendingProducts() {
@@ -41,19 +73,50 @@ public class SearchService {
     }
 
     public List<Product> getRecommendedProducts(String category) {
-        return productRepository.findAll().stream()
-            .filter(p -> p.getCategory().equalsIgnoreCase(category))
-            .limit(5)
-            .collect(Collectors.toList());
+        List<Long> ids = facets(null, null, null, category).getProductIds();
+        return loadInOrder(ids.subList(0, Math.min(5, ids.size())));
     }
 
     public List<Product> advancedSearch(String query, BigDecimal minPrice, BigDecimal maxPrice, String category) {
-        return productRepository.findAll().stream()
-            .filter(p -> query == null || p.getName().toLowerCase().contains(query.toLowerCase()) ||
-                        p.getCategory().toLowerCase().contains(query.toLowerCase()))
-            .filter(p -> minPrice == null || p.getPrice().compareTo(minPrice) >= 0)
-            .filter(p -> maxPrice == null || p.getPrice().compareTo(maxPrice) <= 0)
-            .filter(p -> category == null || p.getCategory().equalsIgnoreCase(category))
+        return loadInOrder(facets(query, minPrice, maxPrice, category).getProductIds());
+    }
+
+    public FacetedSearchResult facetedSearch(String query, BigDecimal minPrice, BigDecimal maxPrice, String category) {
+        ProductSearchIndex.FacetResult result = facets(query, minPrice, maxPrice, category);
+        return new FacetedSearchResult(loadInOrder(result.getProductIds()), result.getCategoryCounts());
+    }
+
+    private ProductSearchIndex.FacetResult facets(String query, BigDecimal minPrice, BigDecimal maxPrice, String category) {
+        return searchIndex.filter(query,
+            minPrice == null ? null : Paise.of(minPrice, RoundingMode.CEILING),
+            maxPrice == null ? null : Paise.of(maxPrice, RoundingMode.FLOOR),
+            category);
+    }
+
+    private List<Product> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        return productRepository.findAllById(ids).stream()
+            .sorted(Comparator.comparingInt(p -> positions.get(p.getId())))
             .collect(Collectors.toList());
     }
+
+    private String encodeCursor(ProductSearchIndex.Hit hit) {
+        String raw = Double.doubleToLongBits(hit.getScore()) + ":" + hit.getProductId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ProductSearchIndex.Hit decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            return new ProductSearchIndex.Hit(Long.parseLong(parts[1]), Double.longBitsToDouble(Long.parseLong(parts[0])));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+    }
 }
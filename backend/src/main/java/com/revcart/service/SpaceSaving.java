@@ -0,0 +1,100 @@
+package com.revcart.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Space-Saving heavy hitters: at most `capacity` counters. Any key whose true weight exceeds total/capacity is kept,
+// and a kept key's count overestimates its true weight by at most its recorded error.
+public class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters = new HashMap<>();
+    private final TreeSet<Counter<K>> byCount = new TreeSet<>(
+        Comparator.<Counter<K>>comparingLong(c -> c.count).thenComparingLong(c -> c.seq));
+    private long total;
+    private long seq;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    public void offer(K key, long weight) {
+        if (weight <= 0) return;
+        total += weight;
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += weight;
+            byCount.add(counter);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter<>(key, weight, 0, seq++);
+        } else {
+            Counter<K> min = byCount.pollFirst();
+            counters.remove(min.key);
+            counter = new Counter<>(key, min.count + weight, min.count, seq++);
+        }
+        counters.put(key, counter);
+        byCount.add(counter);
+    }
+
+    public Map<K, Long> top(int k) {
+        Map<K, Long> top = new LinkedHashMap<>();
+        for (Counter<K> counter : byCount.descendingSet()) {
+            if (top.size() >= k) break;
+            top.put(counter.key, counter.count);
+        }
+        return top;
+    }
+
+    public Map<K, Long> counts() {
+        Map<K, Long> counts = new HashMap<>();
+        counters.forEach((key, counter) -> counts.put(key, counter.count));
+        return counts;
+    }
+
+    public long error(K key) {
+        Counter<K> counter = counters.get(key);
+        return counter == null ? 0 : counter.error;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    static <K> Map<K, Long> topOf(Map<K, Long> counts, int k) {
+        List<Map.Entry<K, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<K, Long>comparingByValue().reversed());
+        Map<K, Long> top = new LinkedHashMap<>();
+        for (Map.Entry<K, Long> entry : entries) {
+            if (top.size() >= k) break;
+            top.put(entry.getKey(), entry.getValue());
+        }
+        return top;
+    }
+
+    private static final class Counter<K> {
+        private final K key;
+        private long count;
+        private final long error;
+        private final long seq;
+
+        Counter(K key, long count, long error, long seq) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.revcart.service;
+
+import java.util.*;
+
+public class SuggestionTrie {
+
+    public static final String PRODUCT = "product";
+    public static final String CATEGORY = "category";
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Completion[] NO_COMPLETIONS = new Completion[0];
+    private static final Comparator<Completion> ORDER = Comparator.comparingLong(Completion::getWeight).reversed()
+        .thenComparing(Completion::getText, String.CASE_INSENSITIVE_ORDER);
+
+    private final int topN;
+    private final Node root = new Node("");
+    private final Map<String, Completion> completions = new HashMap<>();
+
+    public SuggestionTrie(int topN) {
+        this.topN = topN;
+    }
+
+    public static String normalize(String text) {
+        return String.join(" ", ProductSearchIndex.tokenize(text));
+    }
+
+    public void adjust(String text, String type, long delta) {
+        String key = normalize(text);
+        if (key.isEmpty() || delta == 0) return;
+
+        String id = type + ":" + key;
+        Completion completion = completions.get(id);
+        if (completion == null) {
+            if (delta < 0) return;
+            completion = new Completion(text.trim(), type, delta);
+            completions.put(id, completion);
+            for (String suffix : wordSuffixes(key)) {
+                insert(suffix, completion);
+            }
+            return;
+        }
+
+        completion.weight += delta;
+        if (completion.weight <= 0) {
+            completions.remove(id);
+            for (String suffix : wordSuffixes(key)) {
+                delete(suffix, completion);
+            }
+        } else {
+            for (String suffix : wordSuffixes(key)) {
+                List<Node> path = findPath(suffix);
+                if (path != null) recompute(path);
+            }
+        }
+    }
+
+    public List<Completion> lookup(String prefix) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            Node child = node.child(prefix.charAt(pos));
+            if (child == null) return List.of();
+            int common = commonPrefix(child.edge, prefix, pos);
+            if (pos + common == prefix.length()) return Arrays.asList(child.top);
+            if (common < child.edge.length()) return List.of();
+            node = child;
+            pos += common;
+        }
+        return Arrays.asList(node.top);
+    }
+
+    public void clear() {
+        completions.clear();
+        root.children = NO_CHILDREN;
+        root.terminals = NO_COMPLETIONS;
+        root.top = NO_COMPLETIONS;
+    }
+
+    private static List<String> wordSuffixes(String key) {
+        List<String> suffixes = new ArrayList<>();
+        suffixes.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            suffixes.add(key.substring(i + 1));
+        }
+        return suffixes;
+    }
+
+    private void insert(String key, Completion completion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                child = new Node(key.substring(pos));
+                node.addChild(child);
+                node = child;
+                path.add(node);
+                break;
+            }
+            int common = commonPrefix(child.edge, key, pos);
+            if (common < child.edge.length()) {
+                Node split = new Node(child.edge.substring(0, common));
+                node.replaceChild(child, split);
+                child.edge = child.edge.substring(common);
+                split.addChild(child);
+                child = split;
+            }
+            node = child;
+            path.add(node);
+            pos += common;
+        }
+        node.terminals = append(node.terminals, completion);
+        recompute(path);
+    }
+
+    private void delete(String key, Completion completion) {
+        List<Node> path = findPath(key);
+        if (path == null) return;
+
+        Node target = path.get(path.size() - 1);
+        target.terminals = Arrays.stream(target.terminals).filter(c -> c != completion).toArray(Completion[]::new);
+
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (node.terminals.length > 0) break;
+            if (node.children.length == 0) {
+                parent.removeChild(node);
+                path.remove(i);
+            } else if (node.children.length == 1) {
+                Node only = node.children[0];
+                only.edge = node.edge + only.edge;
+                parent.replaceChild(node, only);
+                path.set(i, only);
+                break;
+            } else {
+                break;
+            }
+        }
+        recompute(path);
+    }
+
+    private List<Node> findPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null || !key.startsWith(child.edge, pos)) return null;
+            node = child;
+            path.add(node);
+            pos += child.edge.length();
+        }
+        return path;
+    }
+
+    private void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            List<Completion> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+            for (Node child : node.children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            node.top = candidates.stream().distinct().sorted(ORDER).limit(topN).toArray(Completion[]::new);
+        }
+    }
+
+    private static int commonPrefix(String edge, String key, int offset) {
+        int max = Math.min(edge.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && edge.charAt(i) == key.charAt(offset + i)) i++;
+        return i;
+    }
+
+    private static Completion[] append(Completion[] array, Completion completion) {
+        Completion[] copy = Arrays.copyOf(array, array.length + 1);
+        copy[array.length] = completion;
+        return copy;
+    }
+
+    public static final class Completion {
+        private final String text;
+        private final String type;
+        private long weight;
+
+        Completion(String text, String type, long weight) {
+            this.text = text;
+            this.type = type;
+            this.weight = weight;
+        }
+
+        public String getText() { return text; }
+        public String getType() { return type; }
+        public long getWeight() { return weight; }
+    }
+
+    private static final class Node {
+        private String edge;
+        private Node[] children = NO_CHILDREN;
+        private Completion[] terminals = NO_COMPLETIONS;
+        private Completion[] top = NO_COMPLETIONS;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+
+        Node child(char first) {
+            for (Node child : children) {
+                if (child.edge.charAt(0) == first) return child;
+            }
+            return null;
+        }
+
+        void addChild(Node child) {
+            Node[] copy = Arrays.copyOf(children, children.length + 1);
+            int pos = children.length;
+            while (pos > 0 && copy[pos - 1].edge.charAt(0) > child.edge.charAt(0)) {
+                copy[pos] = copy[pos - 1];
+                pos--;
+            }
+            copy[pos] = child;
+            children = copy;
+        }
+
+        void replaceChild(Node oldChild, Node newChild) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == oldChild) children[i] = newChild;
+            }
+        }
+
+        void removeChild(Node child) {
+            children = Arrays.stream(children).filter(c -> c != child).toArray(Node[]::new);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.revcart.service;
+
+import java.util.*;
+
+public class TrigramIndex {
+
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+
+    public static int maxEditsFor(String term) {
+        if (term.length() <= 2) return 0;
+        return term.length() <= 5 ? 1 : 2;
+    }
+
+    public void add(String term) {
+        for (String trigram : trigrams(term)) {
+            termsByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(term);
+        }
+    }
+
+    public void remove(String term) {
+        for (String trigram : trigrams(term)) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                termsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    public void clear() {
+        termsByTrigram.clear();
+    }
+
+    public Map<String, Integer> match(String term, int maxEdits) {
+        List<String> queryTrigrams = trigrams(term);
+        int minShared = queryTrigrams.size() - 3 * maxEdits;
+
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String candidate : termsByTrigram.getOrDefault(trigram, Set.of())) {
+                shared.merge(candidate, 1, Integer::sum);
+            }
+        }
+
+        Map<String, Integer> matches = new HashMap<>();
+        shared.forEach((candidate, count) -> {
+            if (count < minShared || Math.abs(candidate.length() - term.length()) > maxEdits) return;
+            int distance = boundedDistance(term, candidate, maxEdits);
+            if (distance <= maxEdits) {
+                matches.put(candidate, distance);
+            }
+        });
+        return matches;
+    }
+
+    static List<String> trigrams(String term) {
+        String padded = "$$" + term + "$";
+        List<String> trigrams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // Banded Levenshtein: only cells with |i - j| <= max can stay within the bound, so nothing outside the band is computed.
+    static int boundedDistance(String a, String b, int max) {
+        int over = max + 1;
+        if (Math.abs(a.length() - b.length()) > max) return over;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = Math.min(j, over);
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            current[from - 1] = from == 1 ? Math.min(i, over) : over;
+            int rowMin = current[from - 1];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost), over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < b.length()) current[to + 1] = over;
+            if (rowMin > max) return over;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,161 @@
+package com.revcart.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revcart.dto.OrderLineRow;
+import com.revcart.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts the SQL statements each read path issues, including lazy loads triggered by JSON serialization,
+// so an association that slips back into N+1 loading fails the build.
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.default_batch_fetch_size=50"
+})
+class FetchPlanStatementCountTest {
+
+    private static final int USERS = 4;
+    private static final int ORDERS_PER_USER = 5;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<User> users = new ArrayList<>();
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Product product = new Product("Product " + i, "cat" + (i % 3), new BigDecimal("10.00"), "kg", "p.jpg", "desc");
+            entityManager.persist(product);
+            products.add(product);
+        }
+        for (int u = 0; u < USERS; u++) {
+            User user = new User("User " + u, "user" + u + "@example.com", "password123");
+            entityManager.persist(user);
+            users.add(user);
+            for (int o = 0; o < ORDERS_PER_USER; o++) {
+                Order order = new Order(user, new BigDecimal("30.00"), "Street " + o, "9876543210");
+                entityManager.persist(order);
+                orderIds.add(order.getId());
+                for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                    entityManager.persist(new OrderItem(order, products.get((o + i) % products.size()), 1, new BigDecimal("10.00")));
+                }
+            }
+            Cart cart = new Cart(user);
+            entityManager.persist(cart);
+            for (int i = 0; i < 3; i++) {
+                entityManager.persist(new CartItem(cart, products.get(i + u), 2));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long statements(Supplier<Object> endpoint) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Object body = endpoint.get();
+        objectMapper.writeValueAsString(body);
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void testAdminOrderListIsNotNPlusOne() throws Exception {
+        long count = statements(() -> orderRepository.findAll());
+
+        // orders joined with users, then one batch each for line items and their products
+        assertEquals(3, count);
+    }
+
+    @Test
+    void testOrderDetailIsOneStatement() throws Exception {
+        assertEquals(1, statements(() -> orderRepository.findById(orderIds.get(0)).orElseThrow()));
+    }
+
+    @Test
+    void testUserOrderHistoryIsOneStatement() throws Exception {
+        assertEquals(1, statements(() -> orderRepository.findByUserOrderByOrderDateDesc(users.get(1))));
+    }
+
+    @Test
+    void testOrderSummaryPageIsOneStatement() throws Exception {
+        assertEquals(1, statements(() -> orderRepository.findSummariesByUser(users.get(2).getId(), PageRequest.of(0, 20))));
+    }
+
+    @Test
+    void testCheckoutCartLoadIsOneStatement() throws Exception {
+        long count = statements(() -> {
+            Cart cart = cartRepository.findByUserId(users.get(3).getId()).orElseThrow();
+            List<String> names = new ArrayList<>();
+            cart.getCartItems().forEach(item -> names.add(item.getProduct().getName()));
+            assertEquals(3, names.size());
+            return names;
+        });
+
+        assertEquals(1, count);
+    }
+
+    @Test
+    void testExpiryBatchLoadsItemsInBatches() throws Exception {
+        long count = statements(() -> {
+            int lines = 0;
+            for (Order order : orderRepository.findAllById(orderIds)) {
+                for (OrderItem item : order.getOrderItems()) {
+                    if (item.getProduct().getId() != null) lines++;
+                }
+            }
+            assertEquals(USERS * ORDERS_PER_USER * ITEMS_PER_ORDER, lines);
+            return lines;
+        });
+
+        assertTrue(count <= 3, "expected batched loading but saw " + count + " statements");
+    }
+
+    @Test
+    void testOrderLineScansAreOneStatement() throws Exception {
+        long count = statements(() -> {
+            try (Stream<OrderLineRow> rows = orderRepository.streamLines(orderIds.get(0), orderIds.get(orderIds.size() - 1))) {
+                assertEquals(USERS * ORDERS_PER_USER * ITEMS_PER_ORDER, rows.count());
+            }
+            try (Stream<OrderLineRow> rows = orderRepository.streamLinesSince(LocalDateTime.now().minusDays(1))) {
+                assertEquals(USERS * ORDERS_PER_USER * ITEMS_PER_ORDER, rows.count());
+            }
+            return List.of();
+        });
+
+        assertEquals(2, count);
+    }
+}
@@ -0,0 +1,135 @@
+package com.revcart.service;
+
+import com.revcart.dto.StatusTotals;
+import com.revcart.entity.Order;
+import com.revcart.entity.Product;
+import com.revcart.entity.SalesRollup;
+import com.revcart.repository.OrderRepository;
+import com.revcart.repository.PaymentRepository;
+import com.revcart.repository.ProductRepository;
+import com.revcart.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OrderScanEngine orderScanEngine;
+
+    @Mock
+    private HeavyHitterTracker heavyHitters;
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    @Test
+    void testDashboardStatsComeFromRollupsNotOrderScans() {
+        SalesRollupService.Totals total = totals(
+            new SalesRollup(SalesRollup.Period.MONTH, LocalDate.now().withDayOfMonth(1), Order.OrderStatus.PENDING, 3, 45000),
+            new SalesRollup(SalesRollup.Period.MONTH, LocalDate.now().withDayOfMonth(1), Order.OrderStatus.DELIVERED, 2, 10050));
+        Map<LocalDate, SalesRollupService.Totals> today = new LinkedHashMap<>();
+        today.put(LocalDate.now(), totals(
+            new SalesRollup(SalesRollup.Period.DAY, LocalDate.now(), Order.OrderStatus.PENDING, 1, 15000)));
+        when(salesRollupService.total()).thenReturn(total);
+        when(salesRollupService.daily(1)).thenReturn(today);
+        when(orderRepository.count()).thenReturn(5L);
+
+        Map<String, Object> stats = analyticsService.getDashboardStats();
+
+        assertEquals(3L, stats.get("pendingOrders"));
+        assertEquals(2L, stats.get("deliveredOrders"));
+        assertEquals(550.50, stats.get("totalRevenue"));
+        assertEquals(1L, stats.get("todayOrders"));
+        assertEquals(150.0, stats.get("todayRevenue"));
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    void testUserAnalyticsCountsInTheDatabase() {
+        when(userRepository.count()).thenReturn(200L);
+        when(userRepository.countByCreatedAtGreaterThanEqual(any(LocalDateTime.class))).thenReturn(50L, 20L);
+
+        Map<String, Object> analytics = analyticsService.getUserAnalytics();
+
+        assertEquals(50L, analytics.get("activeUsers"));
+        assertEquals(20L, analytics.get("newUsersThisMonth"));
+        assertEquals(25.0, analytics.get("userRetention"));
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void testSalesAnalyticsIncludesLast30DaysByStatus() {
+        when(salesRollupService.daily(7)).thenReturn(new LinkedHashMap<>());
+        when(salesRollupService.monthly(12)).thenReturn(new LinkedHashMap<>());
+        when(orderRepository.summarizeByStatusBetween(any(), any())).thenReturn(List.of(
+            new StatusTotals(Order.OrderStatus.CANCELLED, 4L, new BigDecimal("120.00"))));
+
+        Map<String, Object> analytics = analyticsService.getSalesAnalytics();
+
+        @SuppressWarnings("unchecked")
+        Map<Order.OrderStatus, Map<String, Object>> byStatus =
+            (Map<Order.OrderStatus, Map<String, Object>>) analytics.get("last30DaysByStatus");
+        assertEquals(4L, byStatus.get(Order.OrderStatus.CANCELLED).get("orders"));
+        assertFalse(byStatus.containsKey(Order.OrderStatus.PENDING));
+    }
+
+    @Test
+    void testTrendingNamesTopProductsFromTheSketch() {
+        Product apple = new Product("Apple", "fruits", new BigDecimal("50.00"), "kg", "apple.jpg", "Fresh apples");
+        apple.setId(7L);
+        Map<Long, Long> top = new LinkedHashMap<>();
+        top.put(7L, 12L);
+        top.put(99L, 3L);
+        when(heavyHitters.topProducts(HeavyHitterTracker.Window.HOUR, 5)).thenReturn(top);
+        when(heavyHitters.topCategories(HeavyHitterTracker.Window.HOUR, 5)).thenReturn(Map.of("fruits", 12L));
+        when(productService.getProductsByIds(top.keySet())).thenReturn(Map.of(7L, apple));
+
+        Map<String, Object> trending = analyticsService.getTrending("1h", 5);
+
+        assertEquals("1h", trending.get("window"));
+        assertEquals(Map.of("Apple", 12L), trending.get("products"));
+        assertEquals(Map.of("fruits", 12L), trending.get("categories"));
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.getTrending("30d", 5));
+    }
+
+    private static SalesRollupService.Totals totals(SalesRollup... rollups) {
+        SalesRollupService.Totals totals = new SalesRollupService.Totals();
+        for (SalesRollup rollup : rollups) {
+            totals.add(rollup);
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,59 @@
+package com.revcart.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartLinesTest {
+
+    @Test
+    void testRunningTotalsFollowEachMutation() {
+        CartLines lines = new CartLines();
+
+        lines.add(1L, 2, 5000);
+        lines.add(2L, 1, 5500);
+        lines.add(1L, 1, 5000);
+        assertEquals(20500, lines.snapshot().getSubtotalPaise());
+        assertEquals(4, lines.snapshot().getItemCount());
+
+        lines.set(2L, 3, 5500);
+        lines.remove(1L);
+        assertEquals(16500, lines.snapshot().getSubtotalPaise());
+        assertEquals(Map.of(2L, 3), lines.snapshot().getItems());
+
+        lines.set(2L, 0, 5500);
+        assertEquals(0, lines.snapshot().getSubtotalPaise());
+        assertEquals(0, lines.snapshot().getItemCount());
+    }
+
+    @Test
+    void testRepriceAdjustsSubtotal() {
+        CartLines lines = new CartLines();
+        lines.add(1L, 3, 5000);
+
+        lines.reprice(1L, 4500);
+        lines.reprice(7L, 100);
+
+        assertEquals(13500, lines.snapshot().getSubtotalPaise());
+    }
+
+    @Test
+    void testCouponAppliesOnlyAboveMinimum() {
+        CartLines lines = new CartLines();
+        lines.applyCoupon("SAVE15", 15, 20000);
+        lines.add(1L, 1, 10000);
+
+        assertEquals(0, lines.snapshot().getDiscountPaise());
+        assertEquals("SAVE15", lines.snapshot().getCouponCode());
+
+        lines.add(1L, 1, 10001);
+        CartLines.Snapshot snapshot = lines.snapshot();
+        assertEquals(3000, snapshot.getDiscountPaise());
+        assertEquals(17002, snapshot.getTotalPaise());
+
+        lines.clear();
+        assertNull(lines.snapshot().getCouponCode());
+    }
+}
@@ -0,0 +1,74 @@
+package com.revcart.service;
+
+import com.revcart.repository.CartItemRepository;
+import com.revcart.repository.CartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartReaperTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private CartStore cartStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CartReaper cartReaper;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cartReaper, "ttlDays", 30L);
+        ReflectionTestUtils.setField(cartReaper, "chunkSize", 2);
+    }
+
+    @Test
+    void testReapsInChunksAndSkipsLoadedCarts() {
+        when(cartRepository.findIdleCarts(any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(new Object[]{1L, 11L}, new Object[]{2L, 12L}));
+        when(cartRepository.findIdleCarts(any(LocalDateTime.class), eq(2L), any(Pageable.class)))
+            .thenReturn(List.<Object[]>of(new Object[]{5L, 15L}));
+        when(cartStore.isLoaded(anyLong())).thenReturn(false);
+        when(cartStore.isLoaded(12L)).thenReturn(true);
+        when(cartRepository.deleteIdleCarts(eq(List.of(1L)), any())).thenReturn(1);
+        when(cartRepository.deleteIdleCarts(eq(List.of(5L)), any())).thenReturn(1);
+
+        int reaped = cartReaper.reap();
+
+        assertEquals(2, reaped);
+        verify(cartItemRepository).deleteItemsOfIdleCarts(eq(List.of(1L)), any());
+        verify(cartItemRepository).deleteItemsOfIdleCarts(eq(List.of(5L)), any());
+        verify(cartRepository, times(2)).findIdleCarts(any(), anyLong(), any());
+        assertEquals(2L, cartReaper.stats().get("lastReaped"));
+        assertEquals(1L, cartReaper.stats().get("runs"));
+    }
+
+    @Test
+    void testNothingIdle() {
+        when(cartRepository.findIdleCarts(any(), anyLong(), any())).thenReturn(List.of());
+
+        assertEquals(0, cartReaper.reap());
+        verifyNoInteractions(cartItemRepository);
+    }
+}
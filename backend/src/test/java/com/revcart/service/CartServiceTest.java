@@ -1,7 +1,7 @@
 package com.revcart.service;
 
+import com.revcart.dto.CartMutationRequest;
 import com.revcart.entity.*;
-import com.revcart.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,31 +10,36 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CartServiceTest {
 
     @Mock
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Mock
-    private CartItemRepository cartItemRepository;
+    private ProductService productService;
 
     @Mock
-    private ProductRepository productRepository;
+    private CouponService couponService;
 
     @InjectMocks
     private CartService cartService;
 
     private User user;
     private Product product;
-    private Cart cart;
+    private CartLines lines;
+    private Map<Long, Integer> items;
 
     @BeforeEach
     void setUp() {
@@ -44,104 +49,167 @@ class CartServiceTest {
         product = new Product("Apple", "fruits", new BigDecimal("50.00"), "kg", "apple.jpg", "Fresh apples");
         product.setId(1L);
 
-        cart = new Cart(user);
-        cart.setId(1L);
-        cart.setCartItems(new ArrayList<>());
+        lines = new CartLines();
+        items = Map.of();
     }
 
-    @Test
-    void testGetOrCreateCartExisting() {
-        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
-
-        Cart result = cartService.getOrCreateCart(user);
-
-        assertNotNull(result);
-        assertEquals(1L, result.getId());
-        verify(cartRepository, times(1)).findByUser(user);
-        verify(cartRepository, never()).save(any());
-    }
-
-    @Test
-    void testGetOrCreateCartNew() {
-        when(cartRepository.findByUser(user)).thenReturn(Optional.empty());
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
-
-        Cart result = cartService.getOrCreateCart(user);
-
-        assertNotNull(result);
-        verify(cartRepository, times(1)).findByUser(user);
-        verify(cartRepository, times(1)).save(any(Cart.class));
+    private void applyMutations() {
+        when(cartStore.mutate(eq(1L), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<CartLines>>getArgument(1).accept(lines);
+            CartLines.Snapshot snapshot = lines.snapshot();
+            items = snapshot.getItems();
+            return snapshot;
+        });
     }
 
     @Test
     void testAddToCart() {
-        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByCartAndProduct(cart, product)).thenReturn(Optional.empty());
-        when(cartRepository.findById(1L)).thenReturn(Optional.of(cart));
+        applyMutations();
+        when(productService.getProductById(1L)).thenReturn(Optional.of(product));
+        when(productService.getProductsByIds(Set.of(1L))).thenReturn(Map.of(1L, product));
+        when(cartStore.cartId(1L)).thenReturn(1L);
 
-        Cart result = cartService.addToCart(user, 1L, 2);
+        cartService.addToCart(user, 1L, 2);
+        Cart result = cartService.addToCart(user, 1L, 1);
 
-        assertNotNull(result);
-        verify(cartItemRepository, times(1)).save(any(CartItem.class));
-        verify(cartRepository, times(1)).findById(1L);
+        assertEquals(1L, result.getId());
+        assertEquals(1, result.getCartItems().size());
+        assertEquals(3, result.getCartItems().get(0).getQuantity());
+        assertEquals("Apple", result.getCartItems().get(0).getProduct().getName());
+        assertEquals(new BigDecimal("150.00"), result.getTotals().getSubtotal());
+        assertEquals(3, result.getTotals().getItemCount());
     }
 
     @Test
     void testAddToCartProductNotFound() {
-        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(productService.getProductById(999L)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> cartService.addToCart(user, 999L, 2));
-        verify(productRepository, times(1)).findById(999L);
+        verify(cartStore, never()).mutate(any(), any());
     }
 
     @Test
     void testUpdateCartItem() {
-        CartItem cartItem = new CartItem(cart, product, 1);
-        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByCartAndProduct(cart, product)).thenReturn(Optional.of(cartItem));
-        when(cartRepository.findById(1L)).thenReturn(Optional.of(cart));
+        applyMutations();
+        lines.set(1L, 1, 5000);
+        when(productService.getProductById(1L)).thenReturn(Optional.of(product));
+        when(productService.getProductsByIds(Set.of(1L))).thenReturn(Map.of(1L, product));
 
         Cart result = cartService.updateCartItem(user, 1L, 5);
 
-        assertNotNull(result);
-        verify(cartItemRepository, times(1)).save(any(CartItem.class));
+        assertEquals(5, result.getCartItems().get(0).getQuantity());
+    }
+
+    @Test
+    void testUpdateCartItemToZeroRemovesIt() {
+        applyMutations();
+        lines.set(1L, 1, 5000);
+        when(productService.getProductById(1L)).thenReturn(Optional.of(product));
+
+        Cart result = cartService.updateCartItem(user, 1L, 0);
+
+        assertTrue(result.getCartItems().isEmpty());
     }
 
     @Test
     void testRemoveFromCart() {
-        CartItem cartItem = new CartItem(cart, product, 1);
-        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByCartAndProduct(cart, product)).thenReturn(Optional.of(cartItem));
+        applyMutations();
+        lines.set(1L, 1, 5000);
+        when(productService.getProductById(1L)).thenReturn(Optional.of(product));
 
         cartService.removeFromCart(user, 1L);
 
-        verify(cartItemRepository, times(1)).delete(cartItem);
+        assertTrue(items.isEmpty());
     }
 
     @Test
     void testClearCart() {
-        CartItem cartItem = new CartItem(cart, product, 1);
-        cart.setCartItems(new ArrayList<>(List.of(cartItem)));
-        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
+        applyMutations();
+        lines.set(1L, 1, 5000);
+        lines.set(2L, 4, 5500);
 
         cartService.clearCart(user);
 
-        verify(cartItemRepository, times(1)).deleteAll(any());
-        verify(cartItemRepository, times(1)).deleteByCart(cart);
+        assertTrue(items.isEmpty());
+        assertEquals(0, lines.snapshot().getSubtotalPaise());
     }
 
     @Test
     void testGetCart() {
-        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
+        Map<Long, Integer> stored = new HashMap<>(Map.of(1L, 2, 99L, 1));
+        when(cartStore.items(1L)).thenReturn(new CartLines.Snapshot(stored, 10000, 2, null, 0));
+        when(cartStore.cartId(1L)).thenReturn(1L);
+        when(productService.getProductsByIds(stored.keySet())).thenReturn(Map.of(1L, product));
 
         Cart result = cartService.getCart(user);
 
-        assertNotNull(result);
         assertEquals(1L, result.getId());
-        verify(cartRepository, times(1)).findByUser(user);
+        assertEquals(1, result.getCartItems().size());
+        assertSame(user, result.getUser());
+        assertEquals(new BigDecimal("100.00"), result.getTotals().getTotal());
+    }
+
+    @Test
+    void testApplyMutationsInOneStoreWrite() {
+        applyMutations();
+        lines.set(2L, 3, 5500);
+        Product milk = new Product("Milk", "dairy", new BigDecimal("55.00"), "1L", "milk.jpg", "Fresh milk");
+        milk.setId(2L);
+        when(productService.getProductsByIds(Set.of(1L, 2L, 99L))).thenReturn(Map.of(1L, product, 2L, milk));
+        when(productService.getProductsByIds(Set.of(1L))).thenReturn(Map.of(1L, product));
+
+        Cart result = cartService.applyMutations(user, List.of(
+            new CartMutationRequest(1L, 2, "add"),
+            new CartMutationRequest(1L, 1, "add"),
+            new CartMutationRequest(99L, 1, "add"),
+            new CartMutationRequest(2L, null, "remove")
+        ));
+
+        assertEquals(Map.of(1L, 3), items);
+        assertEquals(1, result.getCartItems().size());
+        assertEquals(new BigDecimal("150.00"), result.getTotals().getTotal());
+        verify(cartStore, times(1)).mutate(eq(1L), any());
+        verify(productService, never()).getProductById(any());
+    }
+
+    @Test
+    void testApplyMutationsRejectsInvalidOp() {
+        assertThrows(IllegalArgumentException.class, () -> cartService.applyMutations(user, List.of(
+            new CartMutationRequest(1L, 1, "add"),
+            new CartMutationRequest(1L, null, "set")
+        )));
+        verifyNoInteractions(cartStore);
+    }
+
+    @Test
+    void testApplyCouponDiscountsRunningTotal() {
+        applyMutations();
+        lines.set(1L, 4, 5000);
+        Coupon coupon = new Coupon();
+        coupon.setCode("SAVE10");
+        coupon.setDiscountPercentage(10);
+        coupon.setMinOrderAmount(new BigDecimal("150.00"));
+        when(couponService.findUsableCoupon("SAVE10")).thenReturn(Optional.of(coupon));
+        when(productService.getProductsByIds(Set.of(1L))).thenReturn(Map.of(1L, product));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(product));
+
+        Cart result = cartService.applyCoupon(user, "SAVE10");
+
+        assertEquals(new BigDecimal("20.00"), result.getTotals().getDiscount());
+        assertEquals(new BigDecimal("180.00"), result.getTotals().getTotal());
+        assertEquals("SAVE10", result.getTotals().getCouponCode());
+
+        result = cartService.updateCartItem(user, 1L, 2);
+
+        assertEquals(BigDecimal.ZERO.setScale(2), result.getTotals().getDiscount());
+        assertEquals(new BigDecimal("100.00"), result.getTotals().getTotal());
+    }
+
+    @Test
+    void testApplyUnknownCouponFails() {
+        when(couponService.findUsableCoupon("NOPE")).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> cartService.applyCoupon(user, "NOPE"));
+        verifyNoInteractions(cartStore);
     }
 }
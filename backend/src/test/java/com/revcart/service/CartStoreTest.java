@@ -0,0 +1,268 @@
+package com.revcart.service;
+
+import com.revcart.entity.*;
+import com.revcart.repository.CartItemRepository;
+import com.revcart.repository.CartRepository;
+import com.revcart.repository.ProductRepository;
+import com.revcart.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartStoreTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CouponService couponService;
+
+    @InjectMocks
+    private CartStore cartStore;
+
+    @TempDir
+    Path tempDir;
+
+    private Path journal;
+    private Cart cart;
+    private Product apple;
+    private Product milk;
+
+    @BeforeEach
+    void setUp() {
+        journal = tempDir.resolve("cart-journal.log");
+        ReflectionTestUtils.setField(cartStore, "journalPath", journal.toString());
+        ReflectionTestUtils.setField(cartStore, "idleEvictMinutes", 30L);
+
+        User user = new User("John Doe", "john@example.com", "password123");
+        user.setId(1L);
+        cart = new Cart(user);
+        cart.setId(10L);
+        cart.setCartItems(new ArrayList<>());
+
+        apple = new Product("Apple", "fruits", new BigDecimal("50.00"), "kg", "apple.jpg", "Fresh apples");
+        apple.setId(1L);
+        milk = new Product("Milk", "dairy", new BigDecimal("55.00"), "1L", "milk.jpg", "Fresh milk");
+        milk.setId(2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMutationsAreCoalescedIntoOneFlush() throws Exception {
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.empty(), Optional.of(cart));
+        when(productRepository.findAllById(any())).thenReturn(List.of(apple, milk));
+
+        cartStore.mutate(1L, lines -> lines.add(1L, 1, 5000));
+        cartStore.mutate(1L, lines -> lines.add(1L, 2, 5000));
+        CartLines.Snapshot result = cartStore.mutate(1L, lines -> lines.set(2L, 1, 5500));
+
+        assertEquals(Map.of(1L, 3, 2L, 1), result.getItems());
+        assertEquals(20500, result.getSubtotalPaise());
+        assertEquals(3, Files.readAllLines(journal).size());
+        verifyNoInteractions(jdbcTemplate);
+
+        cartStore.flush();
+
+        ArgumentCaptor<List<CartItem>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO cart_items"), inserted.capture(), eq(2),
+            any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(3, inserted.getValue().get(0).getQuantity());
+        verify(cartItemRepository, never()).saveAll(any());
+        assertEquals(10L, cartStore.cartId(1L));
+        assertFalse(Files.exists(journal));
+    }
+
+    @Test
+    void testLoadsExistingCartOnce() {
+        cart.getCartItems().add(new CartItem(cart, apple, 2));
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+
+        assertEquals(Map.of(1L, 2), cartStore.items(1L).getItems());
+        assertEquals(10000, cartStore.items(1L).getSubtotalPaise());
+
+        verify(cartRepository, times(1)).findByUserId(1L);
+        cartStore.flush();
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void testReplayRestoresLatestSnapshot() throws Exception {
+        Files.writeString(journal, "1|1:1\n1|1:4,2:2\n");
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findAllById(any())).thenReturn(List.of(apple, milk));
+
+        cartStore.replayJournal();
+
+        assertEquals(Map.of(1L, 4, 2L, 2), cartStore.items(1L).getItems());
+        assertEquals(31000, cartStore.items(1L).getSubtotalPaise());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertFalse(Files.exists(journal));
+    }
+
+    @Test
+    void testReplayRunsBeforeTheServerTakesRequests() throws Exception {
+        assertNotNull(CartStore.class.getMethod("replayJournal").getAnnotation(PostConstruct.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushUpdatesExistingItemsAndRemovesDroppedOnes() {
+        CartItem appleItem = new CartItem(cart, apple, 2);
+        CartItem milkItem = new CartItem(cart, milk, 1);
+        cart.getCartItems().add(appleItem);
+        cart.getCartItems().add(milkItem);
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+
+        cartStore.mutate(1L, lines -> {
+            lines.set(1L, 5, 5000);
+            lines.remove(2L);
+        });
+        cartStore.flush();
+
+        verify(cartItemRepository, times(1)).saveAll(List.of(appleItem));
+        assertEquals(5, appleItem.getQuantity());
+        ArgumentCaptor<List<CartItem>> removed = ArgumentCaptor.forClass(List.class);
+        verify(cartItemRepository, times(1)).deleteAllInBatch(removed.capture());
+        assertEquals(List.of(milkItem), removed.getValue());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testCouponIsJournalledPersistedAndRestored() throws Exception {
+        Coupon coupon = new Coupon();
+        coupon.setCode("SAVE10");
+        coupon.setDiscountPercentage(10);
+        coupon.setMinOrderAmount(new BigDecimal("0.00"));
+        when(couponService.findUsableCoupon("SAVE10")).thenReturn(Optional.of(coupon));
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.empty(), Optional.of(cart));
+        when(productRepository.findAllById(any())).thenReturn(List.of(apple));
+
+        cartStore.mutate(1L, lines -> {
+            lines.set(1L, 2, 5000);
+            lines.applyCoupon("SAVE10", 10, 0);
+        });
+        assertEquals(List.of("1|1:2|SAVE10"), Files.readAllLines(journal));
+        cartStore.flush();
+        assertEquals("SAVE10", cart.getCouponCode());
+
+        // A fresh store finds the coupon on the persisted cart.
+        CartStore restarted = new CartStore();
+        ReflectionTestUtils.setField(restarted, "cartRepository", cartRepository);
+        ReflectionTestUtils.setField(restarted, "couponService", couponService);
+        cart.getCartItems().add(new CartItem(cart, apple, 2));
+        CartLines.Snapshot snapshot = restarted.items(1L);
+        assertEquals("SAVE10", snapshot.getCouponCode());
+        assertEquals(1000, snapshot.getDiscountPaise());
+    }
+
+    @Test
+    void testReplayRestoresCoupon() throws Exception {
+        Coupon coupon = new Coupon();
+        coupon.setCode("SAVE10");
+        coupon.setDiscountPercentage(10);
+        coupon.setMinOrderAmount(new BigDecimal("0.00"));
+        Files.writeString(journal, "1|1:2|SAVE10\n");
+        when(couponService.findUsableCoupon("SAVE10")).thenReturn(Optional.of(coupon));
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findAllById(any())).thenReturn(List.of(apple));
+
+        cartStore.replayJournal();
+
+        assertEquals("SAVE10", cartStore.items(1L).getCouponCode());
+        assertEquals("SAVE10", cart.getCouponCode());
+    }
+
+    @Test
+    void testFailedFlushKeepsJournal() throws Exception {
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.empty()).thenThrow(new RuntimeException("db down"));
+
+        cartStore.mutate(1L, lines -> lines.set(1L, 1, 5000));
+        cartStore.flush();
+
+        assertEquals(List.of("1|1:1"), Files.readAllLines(journal));
+        assertEquals(1L, cartStore.stats().get("flushFailures"));
+    }
+
+    @Test
+    void testConcurrentMutationsAreAllJournalled() throws Exception {
+        when(cartRepository.findByUserId(anyLong())).thenReturn(Optional.empty());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (long userId = 1; userId <= 8; userId++) {
+            long id = userId;
+            tasks.add(pool.submit(() -> {
+                for (int i = 0; i < 50; i++) cartStore.mutate(id, lines -> lines.add(1L, 1, 5000));
+            }));
+        }
+        for (Future<?> task : tasks) task.get();
+        pool.shutdown();
+
+        assertEquals(400, Files.readAllLines(journal).size());
+        assertEquals(Map.of(1L, 50), cartStore.items(3L).getItems());
+    }
+
+    @Test
+    void testRepriceAndRemoveProductUpdateLoadedCarts() {
+        cart.getCartItems().add(new CartItem(cart, apple, 2));
+        cart.getCartItems().add(new CartItem(cart, milk, 1));
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+        cartStore.items(1L);
+
+        cartStore.reprice(1L, 4000);
+        assertEquals(13500, cartStore.items(1L).getSubtotalPaise());
+
+        cartStore.removeProduct(2L);
+        CartLines.Snapshot snapshot = cartStore.items(1L);
+        assertEquals(Map.of(1L, 2), snapshot.getItems());
+        assertEquals(8000, snapshot.getSubtotalPaise());
+    }
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        Map<Long, Integer> items = Map.of(5L, 3);
+
+        assertEquals(items, CartStore.decode(CartStore.encode(items)));
+        assertTrue(CartStore.decode("").isEmpty());
+    }
+}
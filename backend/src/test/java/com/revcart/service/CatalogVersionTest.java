@@ -0,0 +1,37 @@
+package com.revcart.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogVersionTest {
+
+    @Test
+    void testBumpChangesCatalogAndProductOnly() {
+        AtomicLong now = new AtomicLong(1_000);
+        CatalogVersion versions = new CatalogVersion(now::get);
+        CatalogVersion.Stamp catalog = versions.catalog();
+        CatalogVersion.Stamp product = versions.product(1L);
+        CatalogVersion.Stamp other = versions.product(2L);
+
+        now.set(5_000);
+        versions.bump(1L);
+
+        assertNotEquals(catalog.getEtag(), versions.catalog().getEtag());
+        assertNotEquals(product.getEtag(), versions.product(1L).getEtag());
+        assertEquals(5_000, versions.product(1L).getLastModified());
+        assertEquals(other.getEtag(), versions.product(2L).getEtag());
+        assertEquals(1_000, versions.product(2L).getLastModified());
+    }
+
+    @Test
+    void testRestartInvalidatesEtags() {
+        CatalogVersion before = new CatalogVersion(() -> 1_000);
+        CatalogVersion after = new CatalogVersion(() -> 2_000);
+
+        assertNotEquals(before.catalog().getEtag(), after.catalog().getEtag());
+        assertNotEquals(before.product(1L).getEtag(), after.product(1L).getEtag());
+    }
+}
@@ -100,13 +100,12 @@ class CouponServiceTest {
 
     @Test
     void testUseCoupon() {
-        when(couponRepository.findByCode("SAVE10")).thenReturn(Optional.of(coupon));
+        when(couponRepository.consume("SAVE10")).thenReturn(1, 0);
 
-        couponService.useCoupon("SAVE10");
+        assertTrue(couponService.useCoupon("SAVE10"));
+        assertFalse(couponService.useCoupon("SAVE10"));
 
-        verify(couponRepository, times(1)).findByCode("SAVE10");
-        verify(couponRepository, times(1)).save(any(Coupon.class));
-        assertEquals(1, coupon.getUsedCount());
+        verify(couponRepository, never()).save(any(Coupon.class));
     }
 
     @Test
@@ -0,0 +1,55 @@
+package com.revcart.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+
+    @Test
+    void testExpiresOnlyDueKeys() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule(1L, 250);
+        wheel.schedule(2L, 500);
+
+        assertEquals(List.of(), wheel.advance(200));
+        assertEquals(List.of(1L), wheel.advance(300));
+        assertEquals(List.of(2L), wheel.advance(1000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testDeadlinesBeyondOneRotationWaitForTheirRound() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule(1L, 100);
+        wheel.schedule(2L, 900);
+
+        assertEquals(List.of(1L), wheel.advance(100));
+        assertEquals(List.of(), wheel.advance(800));
+        assertEquals(List.of(2L), wheel.advance(900));
+    }
+
+    @Test
+    void testCancelAndReschedule() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule(1L, 200);
+        wheel.schedule(2L, 200);
+
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+        wheel.schedule(2L, 600);
+
+        assertEquals(List.of(), wheel.advance(500));
+        assertEquals(List.of(2L), wheel.advance(600));
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextTick() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(100, 8, 1000);
+        wheel.schedule(1L, 10);
+
+        assertEquals(List.of(1L), wheel.advance(1100));
+    }
+}
@@ -0,0 +1,150 @@
+package com.revcart.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revcart.entity.IdempotencyRecord;
+import com.revcart.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private static final String K1 = IdempotencyService.requestKey("order:create", "john", "k1");
+
+    private IdempotencyService idempotencyService;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(100, 24);
+        ReflectionTestUtils.setField(idempotencyService, "recordRepository", recordRepository);
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(idempotencyService, "waitSeconds", 1L);
+        calls = new AtomicInteger();
+    }
+
+    private ResponseEntity<?> placeOrder() {
+        return ResponseEntity.ok(Map.of("orderId", calls.incrementAndGet()));
+    }
+
+    @Test
+    void testRetryReturnsOriginalResponseWithoutRunningAgain() {
+        IdempotencyRecord record = new IdempotencyRecord(K1);
+        when(recordRepository.findByRequestKey(K1)).thenReturn(Optional.of(record));
+
+        ResponseEntity<?> first = idempotencyService.execute("order:create", "john", "k1", this::placeOrder);
+        ResponseEntity<?> retry = idempotencyService.execute("order:create", "john", "k1", this::placeOrder);
+
+        assertSame(first, retry);
+        assertEquals(1, calls.get());
+        assertEquals(IdempotencyRecord.Status.COMPLETED, record.getStatus());
+        assertEquals("{\"orderId\":1}", record.getResponseBody());
+        verify(recordRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    void testKeyCompletedElsewhereIsReplayedFromDatabase() {
+        when(recordRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        IdempotencyRecord record = new IdempotencyRecord(K1);
+        record.setStatus(IdempotencyRecord.Status.COMPLETED);
+        record.setHttpStatus(200);
+        record.setResponseBody("{\"orderId\":7}");
+        when(recordRepository.findByRequestKey(K1)).thenReturn(Optional.of(record));
+
+        ResponseEntity<?> response = idempotencyService.execute("order:create", "john", "k1", this::placeOrder);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("{\"orderId\":7}", response.getBody().toString());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void testKeyInFlightElsewhereIsRejected() {
+        when(recordRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(recordRepository.findByRequestKey(anyString())).thenReturn(Optional.of(new IdempotencyRecord("k")));
+
+        ResponseEntity<?> response = idempotencyService.execute("order:create", "john", "k1", this::placeOrder);
+
+        assertEquals(409, response.getStatusCode().value());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void testFailedResponseIsNotRemembered() {
+        ResponseEntity<?> failed = idempotencyService.execute("order:create", "john", "k1",
+            () -> ResponseEntity.badRequest().body(Map.of("message", "Cart is empty")));
+        ResponseEntity<?> retry = idempotencyService.execute("order:create", "john", "k1", this::placeOrder);
+
+        assertEquals(400, failed.getStatusCode().value());
+        assertEquals(200, retry.getStatusCode().value());
+        verify(recordRepository, times(1)).deleteByRequestKey(K1);
+        verify(recordRepository, times(2)).saveAndFlush(any());
+    }
+
+    @Test
+    void testUnstorableResponseStillCompletesTheKey() {
+        when(recordRepository.findByRequestKey(K1)).thenReturn(Optional.of(new IdempotencyRecord(K1)));
+        when(recordRepository.save(any())).thenThrow(new DataIntegrityViolationException("row too large"));
+
+        ResponseEntity<?> response = idempotencyService.execute("order:create", "john", "k1", this::placeOrder);
+
+        assertEquals(200, response.getStatusCode().value());
+        verify(recordRepository).complete(eq(K1), eq(200), contains("already processed"), any());
+        verify(recordRepository, never()).deleteByRequestKey(any());
+    }
+
+    @Test
+    void testPurgeOnlyRemovesExpiredKeys() {
+        LocalDateTime before = LocalDateTime.now();
+
+        idempotencyService.purgeExpired();
+
+        ArgumentCaptor<LocalDateTime> expiredBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(recordRepository).purge(expiredBefore.capture());
+        assertFalse(expiredBefore.getValue().isAfter(before.minusHours(23)));
+    }
+
+    @Test
+    void testWithoutKeyRunsEveryTime() {
+        idempotencyService.execute("order:create", "john", null, this::placeOrder);
+        idempotencyService.execute("order:create", "john", "", this::placeOrder);
+
+        assertEquals(2, calls.get());
+        verifyNoInteractions(recordRepository);
+    }
+
+    @Test
+    void testRequestKeyIsFixedLengthForLongPrincipals() {
+        String principal = "a".repeat(240) + "@example.com";
+
+        String requestKey = IdempotencyService.requestKey("order:create", principal, "k".repeat(100));
+
+        assertEquals(64, requestKey.length());
+        assertEquals(requestKey, IdempotencyService.requestKey("order:create", principal, "k".repeat(100)));
+        assertNotEquals(K1, IdempotencyService.requestKey("order:create", "jane", "k1"));
+    }
+}
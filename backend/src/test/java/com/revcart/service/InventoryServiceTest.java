@@ -0,0 +1,75 @@
+package com.revcart.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private InventoryService inventoryService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReserveLocksRowsInIdOrder() {
+        when(jdbcTemplate.batchUpdate(contains("stock_quantity >= ?"), anyList(), eq(2), any(ParameterizedPreparedStatementSetter.class)))
+            .thenReturn(new int[][]{{1, 1}});
+
+        inventoryService.reserve(Map.of(9L, 1, 3L, 4));
+
+        ArgumentCaptor<List<Map.Entry<Long, Integer>>> lines = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), lines.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(Map.entry(3L, 4), Map.entry(9L, 1)), lines.getValue());
+        verify(productService).stockChanged(Set.of(3L, 9L));
+        assertEquals(1L, inventoryService.stats().get("reserved"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReserveRejectsWhenAnyLineIsShort() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), eq(2), any(ParameterizedPreparedStatementSetter.class)))
+            .thenReturn(new int[][]{{1, 0}});
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> inventoryService.reserve(Map.of(3L, 4, 9L, 1)));
+
+        assertTrue(e.getMessage().contains("[9]"));
+        verifyNoInteractions(productService);
+        assertEquals(1L, inventoryService.stats().get("rejected"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReleaseAddsStockBack() {
+        inventoryService.release(Map.of(3L, 4));
+
+        verify(jdbcTemplate).batchUpdate(contains("stock_quantity + ?"), anyList(), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        verify(productService).stockChanged(Set.of(3L));
+    }
+
+    @Test
+    void testEmptyBasketTouchesNothing() {
+        inventoryService.reserve(Map.of());
+
+        verifyNoInteractions(jdbcTemplate, productService);
+    }
+}
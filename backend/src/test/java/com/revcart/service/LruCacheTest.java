@@ -0,0 +1,57 @@
+package com.revcart.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    private AtomicLong now;
+    private LruCache<Long, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0);
+        cache = new LruCache<>(2, 1000, now::get);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        cache.put(1L, "Apple");
+        cache.put(2L, "Banana");
+        cache.get(1L);
+        cache.put(3L, "Carrot");
+
+        assertEquals("Apple", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals("Carrot", cache.get(3L));
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        cache.put(1L, "Apple");
+        now.set(999);
+        assertEquals("Apple", cache.get(1L));
+
+        now.set(1000);
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.stats().get("expirations"));
+    }
+
+    @Test
+    void testStatsCountHitsAndMisses() {
+        cache.put(1L, "Apple");
+        cache.get(1L);
+        cache.get(2L);
+        cache.invalidate(1L);
+        cache.get(1L);
+
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(2L, cache.stats().get("misses"));
+    }
+}
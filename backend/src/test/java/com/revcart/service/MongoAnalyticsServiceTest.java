@@ -0,0 +1,266 @@
+package com.revcart.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.mongodb.client.result.UpdateResult;
+import com.revcart.document.OrderAnalytics;
+import com.revcart.dto.OrderLineRow;
+import com.revcart.entity.Order;
+import com.revcart.entity.OrderItem;
+import com.revcart.entity.Product;
+import com.revcart.entity.User;
+import com.revcart.mongo.OrderAnalyticsRepository;
+import com.revcart.repository.OrderRepository;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MongoAnalyticsServiceTest {
+
+    @Mock
+    private OrderAnalyticsRepository analyticsRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderScanEngine orderScanEngine;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOps;
+
+    @InjectMocks
+    private MongoAnalyticsService mongoAnalyticsService;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(mongoAnalyticsService, "revenueMigrated", true);
+        ReflectionTestUtils.setField(mongoAnalyticsService, "eventHorizonMinutes", 60L);
+        ReflectionTestUtils.setField(mongoAnalyticsService, "recentOrderWindow", 500);
+        User user = new User("John Doe", "john@example.com", "password123");
+        Product apple = new Product("Apple", "fruits", new BigDecimal("50.00"), "kg", "apple.jpg", "Fresh apples");
+        apple.setId(1L);
+        Product bread = new Product("Bread", "bakery", new BigDecimal("35.00"), "pc", "bread.jpg", "Whole wheat");
+        bread.setId(2L);
+        order = new Order(user, new BigDecimal("170.00"), "123 Main St", "9876543210");
+        order.setId(10L);
+        order.setOrderItems(List.of(
+            new OrderItem(order, apple, 2, new BigDecimal("50.00")),
+            new OrderItem(order, bread, 2, new BigDecimal("35.00"))));
+    }
+
+    @Test
+    void testApplyOrderIncrementsEachProductInOneBulkWrite() {
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderAnalytics.class, MongoAnalyticsService.LIVE_COLLECTION))
+            .thenReturn(bulkOps);
+
+        mongoAnalyticsService.applyOrder(10L);
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOps, times(2)).upsert(queries.capture(), updates.capture());
+        verify(bulkOps, times(1)).execute();
+        Document inc = (Document) updates.getAllValues().get(0).getUpdateObject().get("$inc");
+        assertEquals(2, inc.get("purchaseCount"));
+        assertEquals(new BigDecimal("100.00"), ((Decimal128) inc.get("totalRevenue")).bigDecimalValue());
+        // Each line only applies while the order is not yet recorded on that product.
+        assertEquals(new Document("$ne", 10L), queries.getAllValues().get(0).getQueryObject().get("recentOrders"));
+        assertNotNull(((Document) updates.getAllValues().get(0).getUpdateObject().get("$push")).get("recentOrders"));
+        verify(mongoTemplate, times(1)).insert(any(Document.class), eq(MongoAnalyticsService.APPLIED_COLLECTION));
+    }
+
+    @Test
+    void testLegacyStringRevenueIsConvertedBeforeTheFirstIncrement() {
+        ReflectionTestUtils.setField(mongoAnalyticsService, "revenueMigrated", false);
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(MongoAnalyticsService.LIVE_COLLECTION)))
+            .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderAnalytics.class, MongoAnalyticsService.LIVE_COLLECTION))
+            .thenReturn(bulkOps);
+
+        mongoAnalyticsService.applyOrder(10L);
+        mongoAnalyticsService.applyOrder(10L);
+
+        ArgumentCaptor<Query> legacy = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(1)).updateMulti(legacy.capture(), any(UpdateDefinition.class), eq(MongoAnalyticsService.LIVE_COLLECTION));
+        assertEquals(new Document("$type", List.of("string")), legacy.getValue().getQueryObject().get("totalRevenue"));
+        InOrder inOrder = inOrder(mongoTemplate, bulkOps);
+        inOrder.verify(mongoTemplate).updateMulti(any(Query.class), any(UpdateDefinition.class), anyString());
+        inOrder.verify(bulkOps).execute();
+    }
+
+    @Test
+    void testRedeliveredOrderIsNotCountedTwice() {
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(mongoTemplate.exists(any(Query.class), eq(MongoAnalyticsService.APPLIED_COLLECTION))).thenReturn(true);
+
+        mongoAnalyticsService.applyOrder(10L);
+
+        verify(mongoTemplate, never()).bulkOps(any(), any(Class.class), anyString());
+    }
+
+    @Test
+    void testFailedWriteLeavesNoMarkerSoRetryCanApply() {
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderAnalytics.class, MongoAnalyticsService.LIVE_COLLECTION))
+            .thenReturn(bulkOps);
+        when(bulkOps.execute()).thenThrow(bulkFailure(11000, 91));
+
+        assertThrows(BulkOperationException.class, () -> mongoAnalyticsService.applyOrder(10L));
+
+        verify(mongoTemplate, never()).insert(any(Document.class), eq(MongoAnalyticsService.APPLIED_COLLECTION));
+    }
+
+    @Test
+    void testRetryAfterPartialFailureSkipsLinesAlreadyCounted() {
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderAnalytics.class, MongoAnalyticsService.LIVE_COLLECTION))
+            .thenReturn(bulkOps);
+        when(bulkOps.execute()).thenThrow(bulkFailure(11000));
+
+        mongoAnalyticsService.applyOrder(10L);
+
+        verify(mongoTemplate, times(1)).insert(any(Document.class), eq(MongoAnalyticsService.APPLIED_COLLECTION));
+    }
+
+    @Test
+    void testLinesForTheSameProductAreMerged() {
+        Product apple = order.getOrderItems().get(0).getProduct();
+        order.setOrderItems(List.of(
+            new OrderItem(order, apple, 2, new BigDecimal("50.00")),
+            new OrderItem(order, apple, 1, new BigDecimal("50.00"))));
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderAnalytics.class, MongoAnalyticsService.LIVE_COLLECTION))
+            .thenReturn(bulkOps);
+
+        mongoAnalyticsService.applyOrder(10L);
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOps, times(1)).upsert(any(Query.class), updates.capture());
+        assertEquals(3, ((Document) updates.getValue().getUpdateObject().get("$inc")).get("purchaseCount"));
+    }
+
+    @Test
+    void testEventDuringRebuildIsAlsoWrittenToShadow() {
+        ReflectionTestUtils.setField(mongoAnalyticsService, "rebuildStartedAt", new Date());
+        BulkOperations shadowOps = mock(BulkOperations.class);
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderAnalytics.class, MongoAnalyticsService.LIVE_COLLECTION))
+            .thenReturn(bulkOps);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderAnalytics.class, MongoAnalyticsService.SHADOW_COLLECTION))
+            .thenReturn(shadowOps);
+
+        mongoAnalyticsService.applyOrder(10L);
+
+        verify(bulkOps, times(1)).execute();
+        verify(shadowOps, times(1)).execute();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRebuildCountsEachOrderOnceAndSwapsShadowOverLive() {
+        MongoDatabase database = mock(MongoDatabase.class);
+        MongoCollection<Document> shadow = mock(MongoCollection.class);
+        when(mongoTemplate.indexOps(MongoAnalyticsService.SHADOW_COLLECTION)).thenReturn(mock(IndexOperations.class));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(MongoAnalyticsService.APPLIED_COLLECTION)))
+            .thenReturn(List.of(new Document("_id", 5L)));
+        LocalDateTime now = LocalDateTime.now();
+        doAnswer(invocation -> {
+            OrderAccumulator<?> accumulator = ((List<OrderAccumulator<?>>) invocation.getArgument(0)).get(0);
+            accumulator.accept(record(1L, now.minusDays(2), 1L));
+            accumulator.accept(record(5L, now.minusMinutes(5), 2L));
+            accumulator.accept(record(6L, now.minusMinutes(1), 3L));
+            return 3L;
+        }).when(orderScanEngine).scan(anyList());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderAnalytics.class, MongoAnalyticsService.SHADOW_COLLECTION))
+            .thenReturn(bulkOps);
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.getName()).thenReturn("revcart");
+        when(mongoTemplate.getCollection(MongoAnalyticsService.SHADOW_COLLECTION)).thenReturn(shadow);
+
+        mongoAnalyticsService.rebuild();
+
+        // Order 6 is recent and its event has not landed yet, so the event will count it, not the scan.
+        ArgumentCaptor<Query> products = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOps, times(2)).upsert(products.capture(), any(Update.class));
+        assertEquals(List.of(1L, 2L), products.getAllValues().stream()
+            .map(query -> query.getQueryObject().get("productId")).sorted().toList());
+        verify(mongoTemplate, times(1)).dropCollection(MongoAnalyticsService.SHADOW_COLLECTION);
+        verify(mongoTemplate, never()).dropCollection(MongoAnalyticsService.LIVE_COLLECTION);
+        ArgumentCaptor<RenameCollectionOptions> options = ArgumentCaptor.forClass(RenameCollectionOptions.class);
+        verify(shadow, times(1)).renameCollection(eq(new MongoNamespace("revcart", MongoAnalyticsService.LIVE_COLLECTION)), options.capture());
+        assertTrue(options.getValue().isDropTarget());
+        assertNull(ReflectionTestUtils.getField(mongoAnalyticsService, "rebuildStartedAt"));
+    }
+
+    @Test
+    void testRebuildIsAbandonedWhenAnEventMissedTheShadow() {
+        when(mongoTemplate.indexOps(MongoAnalyticsService.SHADOW_COLLECTION)).thenReturn(mock(IndexOperations.class));
+        doAnswer(invocation -> {
+            ReflectionTestUtils.setField(mongoAnalyticsService, "shadowFailed", true);
+            return 0L;
+        }).when(orderScanEngine).scan(anyList());
+
+        assertThrows(IllegalStateException.class, () -> mongoAnalyticsService.rebuild());
+
+        verify(mongoTemplate, never()).getCollection(anyString());
+    }
+
+    private static OrderRecord record(Long orderId, LocalDateTime orderDate, Long productId) {
+        OrderLineRow row = new OrderLineRow(orderId, orderDate, Order.OrderStatus.DELIVERED, new BigDecimal("50.00"),
+            productId, "Product " + productId, "fruits", 1, new BigDecimal("50.00"));
+        OrderRecord record = new OrderRecord(row);
+        record.addLine(row);
+        return record;
+    }
+
+    private static BulkOperationException bulkFailure(int... codes) {
+        List<BulkWriteError> errors = new ArrayList<>();
+        for (int i = 0; i < codes.length; i++) {
+            errors.add(new BulkWriteError(codes[i], "E" + codes[i], new BsonDocument(), i));
+        }
+        return new BulkOperationException("bulk write failed", new MongoBulkWriteException(
+            BulkWriteResult.unacknowledged(), errors, null, new ServerAddress(), Set.of()));
+    }
+}
@@ -0,0 +1,129 @@
+package com.revcart.service;
+
+import com.revcart.dto.OrderLineRow;
+import com.revcart.entity.Order;
+import com.revcart.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderScanEngineTest {
+
+    private static final LocalDateTime MAY_10 = LocalDateTime.of(2024, 5, 10, 10, 0);
+    private static final LocalDateTime MAY_11 = LocalDateTime.of(2024, 5, 11, 10, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OrderScanEngine orderScanEngine;
+
+    private final List<OrderLineRow> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderScanEngine, "parallelism", 1);
+        ReflectionTestUtils.setField(orderScanEngine, "minPartition", 1L);
+        rows.add(row(1L, MAY_10, Order.OrderStatus.DELIVERED, "150.00", 10L, "fruits", 2, "50.00"));
+        rows.add(row(1L, MAY_10, Order.OrderStatus.DELIVERED, "150.00", 20L, "dairy", 1, "50.00"));
+        rows.add(row(2L, MAY_10, Order.OrderStatus.CANCELLED, "30.00", null, null, null, null));
+        rows.add(row(3L, MAY_11, Order.OrderStatus.PENDING, "75.00", 10L, "fruits", 3, "25.00"));
+        rows.add(row(4L, MAY_11, Order.OrderStatus.DELIVERED, "40.00", 30L, "bakery", 1, "40.00"));
+        rows.add(row(5L, MAY_11, Order.OrderStatus.PENDING, "20.00", 20L, "dairy", 1, "20.00"));
+        rows.add(row(6L, MAY_11, Order.OrderStatus.SHIPPED, "100.00", 30L, "bakery", 2, "50.00"));
+        when(orderRepository.findIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 6L}));
+        lenient().when(orderRepository.streamLines(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            return rows.stream().filter(row -> row.getOrderId() >= from && row.getOrderId() <= to);
+        });
+    }
+
+    @Test
+    void testSinglePassFeedsEveryAccumulator() {
+        OrderAccumulator<Long> revenue = OrderAccumulators.sum(OrderRecord::getTotalPaise);
+        OrderAccumulator<Long> delivered = OrderAccumulators.count(order -> order.getStatus() == Order.OrderStatus.DELIVERED);
+        OrderAccumulator<Map<LocalDate, Long>> byDay = OrderAccumulators.byDay(order -> 1);
+        OrderAccumulator<Map<Order.OrderStatus, Long>> byStatus = OrderAccumulators.byStatus(order -> 1);
+        OrderAccumulator<Map<Long, Long>> topProducts =
+            OrderAccumulators.topK(OrderRecord.Line::getProductId, OrderRecord.Line::getQuantity, 2);
+
+        long orders = orderScanEngine.scan(List.of(revenue, delivered, byDay, byStatus, topProducts));
+
+        assertEquals(6, orders);
+        verify(orderRepository, times(1)).streamLines(1L, 6L);
+        assertEquals(41500L, revenue.result());
+        assertEquals(2L, delivered.result());
+        assertEquals(Map.of(LocalDate.of(2024, 5, 10), 2L, LocalDate.of(2024, 5, 11), 4L), byDay.result());
+        assertEquals(2L, byStatus.result().get(Order.OrderStatus.PENDING));
+        assertEquals(List.of(10L, 30L), new ArrayList<>(topProducts.result().keySet()));
+        assertEquals(5L, topProducts.result().get(10L));
+    }
+
+    @Test
+    void testOrderLinesAreGroupedIntoOneRecord() {
+        OrderAccumulator<Map<Long, OrderAccumulators.ProductTotal>> products = OrderAccumulators.productTotals();
+
+        orderScanEngine.scan(List.of(products));
+
+        OrderAccumulators.ProductTotal fruits = products.result().get(10L);
+        assertEquals(3, products.result().size());
+        assertEquals(5, fruits.getQuantity());
+        assertEquals(17500, fruits.getRevenuePaise());
+        assertEquals("fruits", fruits.getCategory());
+    }
+
+    @Test
+    void testParallelScanMatchesSequentialScan() {
+        ReflectionTestUtils.setField(orderScanEngine, "parallelism", 3);
+        OrderAccumulator<Long> revenue = OrderAccumulators.sum(OrderRecord::getTotalPaise);
+        OrderAccumulator<Map<Order.OrderStatus, Long>> byStatus = OrderAccumulators.byStatus(order -> 1);
+        OrderAccumulator<Map<String, Long>> topCategories =
+            OrderAccumulators.topK(OrderRecord.Line::getCategory, OrderRecord.Line::getTotalPaise, 3);
+
+        long orders = orderScanEngine.scan(List.of(revenue, byStatus, topCategories));
+
+        assertEquals(6, orders);
+        verify(orderRepository, atLeast(3)).streamLines(anyLong(), anyLong());
+        assertEquals(41500L, revenue.result());
+        assertEquals(2L, byStatus.result().get(Order.OrderStatus.DELIVERED));
+        assertEquals(List.of("fruits", "bakery", "dairy"), new ArrayList<>(topCategories.result().keySet()));
+        assertEquals(14000L, topCategories.result().get("bakery"));
+    }
+
+    @Test
+    void testEmptyOrderTableScansNothing() {
+        when(orderRepository.findIdRange()).thenReturn(List.<Object[]>of(new Object[]{null, null}));
+        OrderAccumulator<Long> count = OrderAccumulators.count(order -> true);
+
+        assertEquals(0, orderScanEngine.scan(List.of(count)));
+        assertEquals(0L, count.result());
+        verify(orderRepository, never()).streamLines(anyLong(), anyLong());
+    }
+
+    private static OrderLineRow row(Long orderId, LocalDateTime date, Order.OrderStatus status, String total,
+                                    Long productId, String category, Integer quantity, String price) {
+        return new OrderLineRow(orderId, date, status, new BigDecimal(total), productId,
+            productId == null ? null : "Product " + productId, category, quantity, price == null ? null : new BigDecimal(price));
+    }
+}
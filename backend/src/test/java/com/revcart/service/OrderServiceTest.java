@@ -1,5 +1,8 @@
 package com.revcart.service;
 
+import com.revcart.dto.CartTotals;
+import com.revcart.dto.OrderPage;
+import com.revcart.dto.OrderSummary;
 import com.revcart.entity.*;
 import com.revcart.repository.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,11 +11,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,7 +32,7 @@ class OrderServiceTest {
     private OrderRepository orderRepository;
 
     @Mock
-    private OrderItemRepository orderItemRepository;
+    private JdbcTemplate jdbcTemplate;
 
     @Mock
     private CartService cartService;
@@ -32,6 +40,27 @@ class OrderServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private CouponService couponService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private OrderExpiryTracker expiryTracker;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private HeavyHitterTracker heavyHitters;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -52,6 +81,7 @@ class OrderServiceTest {
         cart.setId(1L);
         CartItem cartItem = new CartItem(cart, product, 2);
         cart.setCartItems(new ArrayList<>(List.of(cartItem)));
+        cart.setTotals(new CartTotals(new BigDecimal("100.00"), BigDecimal.ZERO, new BigDecimal("100.00"), 2, null));
 
         order = new Order(user, new BigDecimal("100.00"), "123 Main St", "9876543210");
         order.setId(1L);
@@ -66,9 +96,45 @@ class OrderServiceTest {
 
         assertNotNull(result);
         assertEquals(new BigDecimal("100.00"), result.getTotalAmount());
-        verify(orderRepository, times(1)).save(any(Order.class));
-        verify(orderItemRepository, times(1)).save(any(OrderItem.class));
+        verify(orderRepository, times(1)).save(argThat(Order::isStockReserved));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), argThat((List<OrderItem> items) -> items.size() == 1), eq(1), any());
         verify(cartService, times(1)).clearCart(user);
+        verify(searchIndex, times(1)).recordPurchase(1L, 2);
+        verify(outboxService, times(1)).enqueue(OutboxService.ORDER_CONFIRMATION, 1L);
+        verify(outboxService, times(1)).enqueue(OutboxService.ORDER_ANALYTICS, 1L);
+        verify(inventoryService, times(1)).reserve(Map.of(1L, 2));
+        verify(expiryTracker, never()).track(any(), any());
+        verify(salesRollupService, times(1)).recordCreated(order);
+        verify(heavyHitters, times(1)).recordOrder(argThat(items -> items.size() == 1), eq(order.getOrderDate()));
+        verifyNoInteractions(notificationService);
+        verifyNoInteractions(couponService);
+    }
+
+    @Test
+    void testCreateOrderUsesDiscountedCartTotal() {
+        cart.setTotals(new CartTotals(new BigDecimal("100.00"), new BigDecimal("10.00"), new BigDecimal("90.00"), 2, "SAVE10"));
+        when(cartService.getCartByUser(user)).thenReturn(cart);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(couponService.validateCoupon("SAVE10", new BigDecimal("100.00"))).thenReturn(Optional.of(new Coupon()));
+        when(couponService.useCoupon("SAVE10")).thenReturn(true);
+
+        Order result = orderService.createOrder(user, "123 Main St", "9876543210");
+
+        assertEquals(new BigDecimal("90.00"), result.getTotalAmount());
+        verify(couponService, times(1)).useCoupon("SAVE10");
+    }
+
+    @Test
+    void testCreateOrderRejectsCouponUsedUpSinceItWasApplied() {
+        cart.setTotals(new CartTotals(new BigDecimal("100.00"), new BigDecimal("10.00"), new BigDecimal("90.00"), 2, "SAVE10"));
+        when(cartService.getCartByUser(user)).thenReturn(cart);
+        when(couponService.validateCoupon("SAVE10", new BigDecimal("100.00"))).thenReturn(Optional.of(new Coupon()));
+        when(couponService.useCoupon("SAVE10")).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> orderService.createOrder(user, "123 Main St", "9876543210"));
+
+        verify(orderRepository, never()).save(any(Order.class));
+        verifyNoInteractions(inventoryService);
     }
 
     @Test
@@ -116,24 +182,130 @@ class OrderServiceTest {
     @Test
     void testUpdateOrderStatus() {
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(orderRepository.transitionStatus(1L, Set.of(Order.OrderStatus.PENDING), Order.OrderStatus.CONFIRMED)).thenReturn(1);
 
         Order result = orderService.updateOrderStatus(1L, Order.OrderStatus.CONFIRMED);
 
-        assertNotNull(result);
+        assertEquals(Order.OrderStatus.CONFIRMED, result.getStatus());
         verify(orderRepository, times(1)).findById(1L);
-        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(salesRollupService, times(1)).recordStatusChange(order, Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+        verify(expiryTracker, times(1)).forget(1L);
+    }
+
+    @Test
+    void testConfirmingExpiredOrderIsRejected() {
+        order.setStatus(Order.OrderStatus.CANCELLED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        assertThrows(IllegalStateException.class, () -> orderService.updateOrderStatus(1L, Order.OrderStatus.CONFIRMED));
+
+        verify(orderRepository, never()).transitionStatus(any(), any(), any());
+        verifyNoInteractions(salesRollupService, inventoryService);
+    }
+
+    @Test
+    void testConfirmLosingRaceWithExpiryIsRejected() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.transitionStatus(1L, Set.of(Order.OrderStatus.PENDING), Order.OrderStatus.CONFIRMED)).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> orderService.updateOrderStatus(1L, Order.OrderStatus.CONFIRMED));
+
+        verifyNoInteractions(salesRollupService);
     }
 
     @Test
     void testCancelOrder() {
+        order.setStockReserved(true);
+        order.setOrderItems(List.of(new OrderItem(order, product, 2, product.getPrice())));
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.transitionStatus(eq(1L), any(), eq(Order.OrderStatus.CANCELLED))).thenReturn(1);
 
         orderService.cancelOrder(1L);
 
         verify(orderRepository, times(1)).findById(1L);
-        verify(orderRepository, times(1)).save(any(Order.class));
+        assertEquals(Order.OrderStatus.CANCELLED, order.getStatus());
+        verify(inventoryService, times(1)).release(Map.of(1L, 2));
+        verify(notificationService, times(1)).sendOrderCancellation(user, order);
+        verify(salesRollupService, times(1)).recordStatusChange(order, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED);
+        assertFalse(order.isStockReserved());
+    }
+
+    @Test
+    void testCancelLegacyOrderReleasesNoStock() {
+        order.setOrderItems(List.of(new OrderItem(order, product, 2, product.getPrice())));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.transitionStatus(eq(1L), any(), eq(Order.OrderStatus.CANCELLED))).thenReturn(1);
+
+        orderService.cancelOrder(1L);
+
+        assertEquals(Order.OrderStatus.CANCELLED, order.getStatus());
+        verifyNoInteractions(inventoryService);
+        verify(notificationService, times(1)).sendOrderCancellation(user, order);
+    }
+
+    @Test
+    void testExpirePendingOrdersOnlyCancelsStillPending() {
+        Order paid = new Order(user, new BigDecimal("40.00"), "123 Main St", "9876543210");
+        paid.setId(2L);
+        when(orderRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(order, paid));
+        when(orderRepository.transitionStatus(1L, Set.of(Order.OrderStatus.PENDING), Order.OrderStatus.CANCELLED)).thenReturn(1);
+        when(orderRepository.transitionStatus(2L, Set.of(Order.OrderStatus.PENDING), Order.OrderStatus.CANCELLED)).thenReturn(0);
+
+        int cancelled = orderService.expirePendingOrders(List.of(1L, 2L));
+
+        assertEquals(1, cancelled);
         verify(notificationService, times(1)).sendOrderCancellation(user, order);
+        verify(expiryTracker, times(1)).forget(1L);
+    }
+
+    @Test
+    void testCancelOrderAlreadyCancelledReleasesNothing() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.transitionStatus(eq(1L), any(), eq(Order.OrderStatus.CANCELLED))).thenReturn(0);
+
+        orderService.cancelOrder(1L);
+
+        verifyNoInteractions(inventoryService, notificationService);
+    }
+
+    @Test
+    void testCreateOrderFailsWhenStockRunsOut() {
+        when(cartService.getCartByUser(user)).thenReturn(cart);
+        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        doThrow(new RuntimeException("Insufficient stock for product(s): [1]")).when(inventoryService).reserve(any());
+
+        assertThrows(RuntimeException.class, () -> orderService.createOrder(user, "123 Main St", "9876543210"));
+        verify(cartService, never()).clearCart(user);
+    }
+
+    @Test
+    void testGetUserOrderPageWalksByDateAndId() {
+        LocalDateTime day = LocalDateTime.of(2024, 5, 1, 10, 30);
+        when(orderRepository.findSummariesByUser(eq(1L), any(Pageable.class))).thenReturn(new ArrayList<>(List.of(
+            new OrderSummary(9L, day, Order.OrderStatus.PENDING, new BigDecimal("90.00"), 3L),
+            new OrderSummary(8L, day, Order.OrderStatus.DELIVERED, new BigDecimal("40.00"), 1L),
+            new OrderSummary(5L, day.minusDays(1), Order.OrderStatus.DELIVERED, new BigDecimal("10.00"), 1L)
+        )));
+
+        OrderPage first = orderService.getUserOrderPage(user, 2, null);
+
+        assertEquals(2, first.getItems().size());
+        assertEquals(3L, first.getItems().get(0).getItemCount());
+        assertNotNull(first.getNextCursor());
+
+        when(orderRepository.findSummariesByUserBefore(eq(1L), eq(day), eq(8L), any(Pageable.class))).thenReturn(List.of(
+            new OrderSummary(5L, day.minusDays(1), Order.OrderStatus.DELIVERED, new BigDecimal("10.00"), 1L)
+        ));
+
+        OrderPage second = orderService.getUserOrderPage(user, 2, first.getNextCursor());
+
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testGetUserOrderPageRejectsBadCursor() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.getUserOrderPage(user, 20, "not-a-cursor"));
     }
 
     @Test
@@ -0,0 +1,144 @@
+package com.revcart.service;
+
+import com.revcart.entity.Order;
+import com.revcart.entity.OutboxEvent;
+import com.revcart.entity.User;
+import com.revcart.repository.OrderRepository;
+import com.revcart.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private MongoAnalyticsService mongoAnalyticsService;
+
+    @InjectMocks
+    private OutboxService outboxService;
+
+    private User user;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxService, "maxAttempts", 5);
+        ReflectionTestUtils.setField(outboxService, "retryAfterSeconds", 30L);
+        ReflectionTestUtils.setField(outboxService, "leaseSeconds", 300L);
+        ReflectionTestUtils.setField(outboxService, "maxBackoffMinutes", 60L);
+        user = new User("John Doe", "john@example.com", "password123");
+        user.setId(1L);
+        order = new Order(user, new BigDecimal("100.00"), "123 Main St", "9876543210");
+        order.setId(7L);
+    }
+
+    @Test
+    void testDispatchDeliversClaimedEvent() {
+        when(outboxRepository.claim(eq(3L), any(), any())).thenReturn(1);
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+        outboxService.dispatch(3L, OutboxService.ORDER_CONFIRMATION, 7L, 0);
+
+        InOrder inOrder = inOrder(notificationService, outboxRepository);
+        inOrder.verify(notificationService).sendOrderConfirmation(user, order);
+        inOrder.verify(outboxRepository).complete(eq(3L), any());
+        verify(outboxRepository, never()).release(any(), any(), any());
+    }
+
+    @Test
+    void testDispatchSkipsEventClaimedElsewhere() {
+        when(outboxRepository.claim(eq(3L), any(), any())).thenReturn(0);
+
+        outboxService.dispatch(3L, OutboxService.ORDER_CONFIRMATION, 7L, 0);
+
+        verifyNoInteractions(notificationService, orderRepository);
+    }
+
+    @Test
+    void testFailedDeliveryIsReleasedForRetry() {
+        when(outboxRepository.claim(eq(3L), any(), any())).thenReturn(1);
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        doThrow(new RuntimeException("mongo down")).when(notificationService).sendOrderConfirmation(user, order);
+
+        outboxService.dispatch(3L, OutboxService.ORDER_CONFIRMATION, 7L, 0);
+
+        verify(outboxRepository, times(1)).release(eq(3L), eq("mongo down"), any());
+        verify(outboxRepository, never()).complete(any(), any());
+    }
+
+    @Test
+    void testRetriesBackOffExponentiallyUpToTheCap() {
+        when(outboxRepository.claim(eq(3L), any(), any())).thenReturn(1);
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        doThrow(new RuntimeException("smtp down")).when(notificationService).sendOrderConfirmation(user, order);
+
+        LocalDateTime before = LocalDateTime.now();
+        outboxService.dispatch(3L, OutboxService.ORDER_CONFIRMATION, 7L, 3);
+
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).release(eq(3L), eq("smtp down"), next.capture());
+        assertFalse(next.getValue().isBefore(before.plusSeconds(240)));
+        assertEquals(30, outboxService.backoffSeconds(0));
+        assertEquals(3600, outboxService.backoffSeconds(10));
+        assertEquals(3600, outboxService.backoffSeconds(64));
+    }
+
+    @Test
+    void testStatsReportDeadEvents() {
+        when(outboxRepository.countByProcessedAtIsNull()).thenReturn(4L);
+        when(outboxRepository.countByProcessedAtIsNullAndAttemptsGreaterThanEqual(5)).thenReturn(1L);
+
+        assertEquals(Map.of("pending", 4L, "dead", 1L), outboxService.stats());
+    }
+
+    @Test
+    void testAnalyticsEventIsAppliedToTheProjection() {
+        when(outboxRepository.claim(eq(4L), any(), any())).thenReturn(1);
+
+        outboxService.dispatch(4L, OutboxService.ORDER_ANALYTICS, 7L, 0);
+
+        verify(mongoAnalyticsService, times(1)).applyOrder(7L);
+        verifyNoInteractions(notificationService);
+        verify(outboxRepository, never()).release(any(), any(), any());
+    }
+
+    @Test
+    void testPollerRetriesPendingEvents() {
+        OutboxEvent event = new OutboxEvent(OutboxService.ORDER_CONFIRMATION, 7L);
+        event.setId(3L);
+        when(outboxRepository.findPendingIds(any(), eq(5), any())).thenReturn(List.of(3L));
+        when(outboxRepository.findById(3L)).thenReturn(Optional.of(event));
+        when(outboxRepository.claim(eq(3L), any(), any())).thenReturn(1);
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+        outboxService.dispatchPending();
+
+        verify(notificationService, times(1)).sendOrderConfirmation(user, order);
+    }
+}
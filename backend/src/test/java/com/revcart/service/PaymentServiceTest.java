@@ -15,6 +15,7 @@ import java.math.BigDecimal;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +30,9 @@ class PaymentServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private OrderExpiryTracker expiryTracker;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -57,6 +61,18 @@ class PaymentServiceTest {
         assertNotNull(result);
         assertEquals(new BigDecimal("100.00"), result.getAmount());
         verify(paymentRepository, times(1)).save(any(Payment.class));
+        verify(expiryTracker, never()).track(any(), any());
+    }
+
+    @Test
+    void testOnlinePaymentArmsExpiryButCodDoesNot() {
+        order.setStockReserved(true);
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Payment card = paymentService.createPayment(order, Payment.PaymentMethod.CARD);
+        paymentService.createPayment(order, Payment.PaymentMethod.COD);
+
+        verify(expiryTracker, times(1)).track(1L, card.getCreatedAt());
     }
 
     @Test
@@ -96,6 +112,20 @@ class PaymentServiceTest {
         verify(paymentRepository, times(1)).save(any(Payment.class));
     }
 
+    @Test
+    void testProcessPaymentForExpiredOrderIsRefunded() {
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(orderService.updateOrderStatus(1L, Order.OrderStatus.CONFIRMED))
+            .thenThrow(new IllegalStateException("Order 1 cannot move from CANCELLED to CONFIRMED"));
+
+        assertThrows(RuntimeException.class, () -> paymentService.processPayment(1L));
+
+        assertEquals(Payment.PaymentStatus.REFUNDED, payment.getStatus());
+        verify(notificationService, times(1)).sendRefundNotification(user, payment);
+        verify(notificationService, never()).sendPaymentConfirmation(any(), any());
+    }
+
     @Test
     void testProcessPaymentNotFound() {
         when(paymentRepository.findById(999L)).thenReturn(Optional.empty());
@@ -0,0 +1,51 @@
+package com.revcart.service;
+
+import com.revcart.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogCacheTest {
+
+    private ProductCatalogCache cache;
+    private Product apple;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCatalogCache(100, 300);
+        apple = new Product("Apple", "fruits", new BigDecimal("50.00"), "kg", "apple.jpg", "Fresh apples");
+        apple.setId(1L);
+    }
+
+    @Test
+    void testFillStoresWhenNothingChangedSinceTheRead() {
+        long generation = cache.productGeneration(1L);
+
+        assertTrue(cache.putProduct(apple, generation));
+        assertSame(apple, cache.getProduct(1L).orElseThrow());
+    }
+
+    @Test
+    void testFillStartedBeforeAnInvalidationIsDropped() {
+        long generation = cache.productGeneration(1L);
+        long listGeneration = cache.listGeneration();
+        cache.invalidate(1L);
+
+        assertFalse(cache.putProduct(apple, generation));
+        assertFalse(cache.putAllProducts(List.of(apple), listGeneration));
+        assertTrue(cache.getProduct(1L).isEmpty());
+        assertTrue(cache.getAllProducts().isEmpty());
+    }
+
+    @Test
+    void testInvalidatingAnotherStripeDoesNotDropTheFill() {
+        long generation = cache.productGeneration(1L);
+        cache.invalidate(2L);
+
+        assertTrue(cache.putProduct(apple, generation));
+    }
+}
@@ -0,0 +1,118 @@
+package com.revcart.service;
+
+import com.revcart.dto.ImportReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductCatalogCache catalogCache;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @InjectMocks
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+    }
+
+    @Test
+    void testImportJsonInChunksAndReportsBadRows() throws Exception {
+        String json = "{\"products\": ["
+            + "{\"name\": \"Apple\", \"category\": \"fruits\", \"price\": 120, \"unit\": \"1kg\"},"
+            + "{\"name\": \"\", \"category\": \"fruits\", \"price\": 60, \"unit\": \"1kg\"},"
+            + "{\"name\": \"Milk\", \"category\": \"dairy\", \"price\": 55, \"unit\": \"1L\", \"image\": \"milk.jpg\"},"
+            + "{\"name\": \"Bread\", \"category\": \"bakery\", \"price\": 35, \"unit\": \"1 loaf\"}"
+            + "]}";
+
+        ImportReport report = importService.importJson(stream(json));
+
+        assertEquals(4, report.getTotalRows());
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(2, report.getErrors().get(0).getRow());
+        assertEquals("name is required", report.getErrors().get(0).getMessage());
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ProductImportService.INSERT_SQL), anyList());
+        verify(searchIndex, times(1)).rebuild();
+        verify(catalogCache, times(1)).invalidateAll();
+    }
+
+    @Test
+    void testImportCsvWithQuotedFields() throws Exception {
+        String csv = "name,category,price,unit,image,description,stockQuantity\n"
+            + "\"Cheese, Aged\",dairy,200,250g,,\"The \"\"best\"\" cheese\",5\n"
+            + "Paneer,dairy,abc,250g,,,\n";
+
+        ImportReport report = importService.importCsv(stream(csv));
+
+        assertEquals(2, report.getTotalRows());
+        assertEquals(1, report.getImported());
+        assertEquals("price is not a number", report.getErrors().get(0).getMessage());
+        verify(jdbcTemplate).batchUpdate(eq(ProductImportService.INSERT_SQL), argThat((List<Object[]> rows) ->
+            rows.size() == 1
+                && rows.get(0)[0].equals("Cheese, Aged")
+                && rows.get(0)[2].equals(new BigDecimal("200"))
+                && rows.get(0)[5].equals("The \"best\" cheese")
+                && rows.get(0)[6].equals(5)));
+    }
+
+    @Test
+    void testFailedBatchFallsBackToSingleRows() throws Exception {
+        String json = "[{\"name\": \"Apple\", \"category\": \"fruits\", \"price\": 120, \"unit\": \"1kg\"},"
+            + "{\"name\": \"Pear\", \"category\": \"fruits\", \"price\": 90, \"unit\": \"1kg\"}]";
+        when(jdbcTemplate.batchUpdate(eq(ProductImportService.INSERT_SQL), anyList()))
+            .thenThrow(new DataIntegrityViolationException("batch failed"));
+        when(jdbcTemplate.update(eq(ProductImportService.INSERT_SQL), any(Object[].class)))
+            .thenReturn(1)
+            .thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        ImportReport report = importService.importJson(stream(json));
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(2, report.getErrors().get(0).getRow());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void testRejectsUnexpectedJsonShape() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importJson(stream("{\"items\": []}")));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,147 @@
+package com.revcart.service;
+
+import com.revcart.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ProductSearchIndex();
+        searchIndex.index(product(1L, "Apple", "fruits", "Fresh red apples"));
+        searchIndex.index(product(2L, "Green Apple", "fruits", "Crisp green apples"));
+        searchIndex.index(product(3L, "Kids Shirt", "kids-clothing", "Kids t-shirt"));
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("kids", "t", "shirt"), ProductSearchIndex.tokenize("Kids T-Shirt"));
+        assertTrue(ProductSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void testSearchAcrossFields() {
+        List<Long> result = searchIndex.search("apple", ProductSearchIndex.Field.NAME, ProductSearchIndex.Field.DESCRIPTION);
+
+        assertEquals(List.of(1L, 2L), result);
+    }
+
+    @Test
+    void testSearchRequiresAllTokens() {
+        assertEquals(List.of(2L), searchIndex.search("green apple", ProductSearchIndex.Field.NAME));
+        assertEquals(List.of(3L), searchIndex.search("kids-clothing", ProductSearchIndex.Field.CATEGORY));
+    }
+
+    @Test
+    void testUpdateReplacesPostings() {
+        searchIndex.index(product(1L, "Banana", "fruits", "Yellow bananas"));
+
+        assertEquals(List.of(2L), searchIndex.search("apple", ProductSearchIndex.Field.NAME));
+        assertEquals(List.of(1L), searchIndex.search("banana", ProductSearchIndex.Field.NAME));
+    }
+
+    @Test
+    void testRemove() {
+        searchIndex.remove(2L);
+
+        assertEquals(List.of(1L), searchIndex.search("apple", ProductSearchIndex.Field.NAME));
+        assertEquals(2, searchIndex.size());
+        assertTrue(searchIndex.search("crisp", ProductSearchIndex.Field.DESCRIPTION).isEmpty());
+    }
+
+    @Test
+    void testRankPrefersNameMatches() {
+        searchIndex.index(product(4L, "Cider", "beverages", "Made from apple juice"));
+
+        List<ProductSearchIndex.Hit> hits = searchIndex.rank("apple", 10, null);
+
+        assertEquals(3, hits.size());
+        assertEquals(1L, hits.get(0).getProductId());
+        assertEquals(4L, hits.get(2).getProductId());
+        assertTrue(hits.get(0).getScore() >= hits.get(1).getScore());
+    }
+
+    @Test
+    void testRankPagesAfterCursor() {
+        List<ProductSearchIndex.Hit> first = searchIndex.rank("apple", 1, null);
+        List<ProductSearchIndex.Hit> second = searchIndex.rank("apple", 1, first.get(0));
+        List<ProductSearchIndex.Hit> third = searchIndex.rank("apple", 1, second.get(0));
+
+        assertEquals(1L, first.get(0).getProductId());
+        assertEquals(2L, second.get(0).getProductId());
+        assertTrue(third.isEmpty());
+    }
+
+    @Test
+    void testFilterByPriceAndCategory() {
+        searchIndex.index(product(4L, "Mango", "Fruits", "Sweet mangoes", "120.50"));
+
+        ProductSearchIndex.FacetResult result = searchIndex.filter(null, 5000L, 12050L, "FRUITS");
+
+        assertEquals(List.of(1L, 2L, 4L), result.getProductIds());
+        assertEquals(3, result.getCategoryCounts().get("fruits"));
+        assertEquals(1, result.getCategoryCounts().get("kids-clothing"));
+        assertEquals(List.of(4L), searchIndex.filter(null, 5001L, null, null).getProductIds());
+    }
+
+    @Test
+    void testFilterCombinesTextAndFacets() {
+        ProductSearchIndex.FacetResult result = searchIndex.filter("apple", null, null, null);
+
+        assertEquals(List.of(1L, 2L), result.getProductIds());
+        assertEquals(1, result.getCategoryCounts().size());
+
+        searchIndex.remove(1L);
+        assertEquals(List.of(2L), searchIndex.filter("apple", 5000L, 5000L, "fruits").getProductIds());
+    }
+
+    @Test
+    void testCategoryStatsMaintainedIncrementally() {
+        searchIndex.index(product(4L, "Mango", "Fruits", "Sweet mangoes", "120.50"));
+        searchIndex.index(product(2L, "Green Apple", "fruits", "Crisp green apples", "40.00"));
+
+        List<ProductSearchIndex.CategoryStats> stats = searchIndex.categoryStats();
+        assertEquals(2, stats.size());
+        assertEquals("fruits", stats.get(0).getName());
+        assertEquals(3, stats.get(0).getProductCount());
+        assertEquals(4000L, stats.get(0).getMinPaise());
+        assertEquals(12050L, stats.get(0).getMaxPaise());
+
+        searchIndex.remove(2L);
+        searchIndex.remove(4L);
+        searchIndex.remove(3L);
+        stats = searchIndex.categoryStats();
+        assertEquals(1, stats.size());
+        assertEquals(1, stats.get(0).getProductCount());
+        assertEquals(5000L, stats.get(0).getMinPaise());
+        assertEquals(5000L, stats.get(0).getMaxPaise());
+    }
+
+    @Test
+    void testFuzzySearchToleratesTypos() {
+        searchIndex.index(product(4L, "Banana", "fruits", "Yellow bananas"));
+
+        assertEquals(List.of(4L), searchIndex.fuzzySearch("bananna", 10));
+        assertEquals(List.of(2L), searchIndex.fuzzySearch("gren aple", 10));
+        assertEquals(List.of(1L, 2L), searchIndex.fuzzySearch("apple", 10));
+        assertTrue(searchIndex.fuzzySearch("xyz", 10).isEmpty());
+    }
+
+    private Product product(Long id, String name, String category, String description) {
+        return product(id, name, category, description, "50.00");
+    }
+
+    private Product product(Long id, String name, String category, String description, String price) {
+        Product product = new Product(name, category, new BigDecimal(price), "kg", null, description);
+        product.setId(id);
+        return product;
+    }
+}
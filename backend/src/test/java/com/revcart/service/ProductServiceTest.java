@@ -1,5 +1,8 @@
 package com.revcart.service;
 
+import com.revcart.dto.CategorySummary;
+import com.revcart.dto.ProductCard;
+import com.revcart.dto.ProductPage;
 import com.revcart.entity.Product;
 import com.revcart.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,9 +13,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +29,18 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductCatalogCache catalogCache;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private CartStore cartStore;
+
     @InjectMocks
     private ProductService productService;
 
@@ -55,6 +73,27 @@ class ProductServiceTest {
         assertTrue(result.isPresent());
         assertEquals("Apple", result.get().getName());
         verify(productRepository, times(1)).findById(1L);
+        verify(catalogCache, times(1)).putProduct(product, 0L);
+    }
+
+    @Test
+    void testGetProductByIdServedFromCache() {
+        when(catalogCache.getProduct(1L)).thenReturn(Optional.of(product));
+
+        Optional<Product> result = productService.getProductById(1L);
+
+        assertTrue(result.isPresent());
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetAllProductsServedFromCache() {
+        when(catalogCache.getAllProducts()).thenReturn(Optional.of(List.of(product)));
+
+        List<Product> result = productService.getAllProducts();
+
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findAll();
     }
 
     @Test
@@ -100,6 +139,7 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals("Apple", result.getName());
         verify(productRepository, times(1)).save(product);
+        verify(searchIndex, times(1)).index(product);
     }
 
     @Test
@@ -113,6 +153,8 @@ class ProductServiceTest {
         assertEquals("Red Apple", result.getName());
         verify(productRepository, times(1)).findById(1L);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(searchIndex, times(1)).index(updatedProduct);
+        verify(cartStore, times(1)).reprice(1L, 6000);
     }
 
     @Test
@@ -128,21 +170,91 @@ class ProductServiceTest {
         productService.deleteProduct(1L);
 
         verify(productRepository, times(1)).deleteById(1L);
+        verify(catalogCache, times(1)).invalidate(1L);
+        verify(catalogVersion, times(1)).bump(1L);
+        verify(searchIndex, times(1)).remove(1L);
+        verify(cartStore, times(1)).removeProduct(1L);
     }
 
     @Test
     void testGetAllCategories() {
-        List<Product> products = Arrays.asList(
-            new Product("Apple", "fruits", new BigDecimal("50.00"), "kg", "apple.jpg", "Fresh apples"),
-            new Product("Carrot", "vegetables", new BigDecimal("30.00"), "kg", "carrot.jpg", "Fresh carrots")
-        );
-        when(productRepository.findAll()).thenReturn(products);
+        when(searchIndex.categoryStats()).thenReturn(List.of(
+            new ProductSearchIndex.CategoryStats("fruits", 1, 5000L, 5000L),
+            new ProductSearchIndex.CategoryStats("vegetables", 1, 3000L, 3000L)
+        ));
 
         List<String> result = productService.getAllCategories();
 
         assertEquals(2, result.size());
         assertTrue(result.contains("fruits"));
         assertTrue(result.contains("vegetables"));
-        verify(productRepository, times(1)).findAll();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testGetCategorySummaries() {
+        when(searchIndex.categoryStats()).thenReturn(List.of(
+            new ProductSearchIndex.CategoryStats("fruits", 2, 5000L, 12050L)
+        ));
+
+        List<CategorySummary> result = productService.getCategorySummaries();
+
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getProductCount());
+        assertEquals(new BigDecimal("50.00"), result.get(0).getMinPrice());
+        assertEquals(new BigDecimal("120.50"), result.get(0).getMaxPrice());
+    }
+    @Test
+    void testListProductsByIdKeyset() {
+        when(productRepository.findCardsOrderById(any())).thenReturn(new ArrayList<>(List.of(
+            new ProductCard(1L, "Apple", new BigDecimal("50.00"), "apple.jpg"),
+            new ProductCard(2L, "Carrot", new BigDecimal("30.00"), "carrot.jpg")
+        )));
+        when(productRepository.findCardsAfterId(eq(1L), any())).thenReturn(new ArrayList<>(List.of(
+            new ProductCard(2L, "Carrot", new BigDecimal("30.00"), "carrot.jpg")
+        )));
+
+        ProductPage first = productService.listProducts("id", 1, null);
+        ProductPage second = productService.listProducts("id", 1, first.getNextCursor());
+
+        assertEquals(1, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(2L, second.getItems().get(0).getId());
+        assertNull(second.getNextCursor());
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void testListProductsByPriceKeyset() {
+        when(productRepository.findCardsOrderByPrice(any())).thenReturn(new ArrayList<>(List.of(
+            new ProductCard(2L, "Carrot", new BigDecimal("30.00"), "carrot.jpg"),
+            new ProductCard(1L, "Apple", new BigDecimal("50.00"), "apple.jpg")
+        )));
+
+        ProductPage first = productService.listProducts("price", 1, null);
+        productService.listProducts("price", 1, first.getNextCursor());
+
+        verify(productRepository, times(1)).findCardsAfterPrice(eq(new BigDecimal("30.00")), eq(2L), any());
+    }
+
+    @Test
+    void testListProductsRejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> productService.listProducts("name", 10, null));
+        assertThrows(IllegalArgumentException.class, () -> productService.listProducts("price", 10, "bm90LWEtY3Vyc29y"));
+    }
+
+    @Test
+    void testGetProductsByIdsLoadsMissesInOneQuery() {
+        Product milk = new Product("Milk", "dairy", new BigDecimal("55.00"), "1L", "milk.jpg", "Fresh milk");
+        milk.setId(2L);
+        when(catalogCache.getProduct(1L)).thenReturn(Optional.of(product));
+        when(catalogCache.productGeneration(2L)).thenReturn(4L);
+        when(productRepository.findAllById(Set.of(2L, 3L))).thenReturn(List.of(milk));
+
+        Map<Long, Product> result = productService.getProductsByIds(List.of(1L, 2L, 3L));
+
+        assertEquals(2, result.size());
+        assertSame(milk, result.get(2L));
+        verify(catalogCache, times(1)).putProduct(milk, 4L);
     }
 }
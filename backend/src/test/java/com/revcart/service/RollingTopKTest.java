@@ -0,0 +1,51 @@
+package com.revcart.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingTopKTest {
+
+    @Test
+    void testMergesSlicesInsideTheWindow() {
+        RollingTopK<String> topK = new RollingTopK<>(1_000, 4, 10);
+        topK.offer("a", 3, 100);
+        topK.offer("b", 5, 300);
+        topK.offer("a", 4, 800);
+
+        assertEquals(List.of("a", "b"), new ArrayList<>(topK.top(5, 900).keySet()));
+        assertEquals(7L, topK.top(5, 900).get("a"));
+    }
+
+    @Test
+    void testOldSlicesDropOutOfTheWindow() {
+        RollingTopK<String> topK = new RollingTopK<>(1_000, 4, 10);
+        topK.offer("old", 50, 100);
+        topK.offer("new", 1, 1_100);
+
+        assertEquals(Map.of("new", 1L), topK.top(5, 1_100));
+        assertEquals(Map.of(), topK.top(5, 5_000));
+    }
+
+    @Test
+    void testReusedSlotForgetsThePreviousSlice() {
+        RollingTopK<String> topK = new RollingTopK<>(1_000, 4, 10);
+        topK.offer("a", 2, 0);
+        topK.offer("b", 3, 1_000);
+
+        assertEquals(Map.of("b", 3L), topK.top(5, 1_000));
+    }
+
+    @Test
+    void testEventsOlderThanTheWindowAreIgnored() {
+        RollingTopK<String> topK = new RollingTopK<>(1_000, 4, 10);
+        topK.offer("b", 3, 2_000);
+        topK.offer("late", 9, 500);
+
+        assertEquals(Map.of("b", 3L), topK.top(5, 2_000));
+    }
+}
@@ -0,0 +1,221 @@
+package com.revcart.service;
+
+import com.revcart.dto.DailyStatusTotals;
+import com.revcart.entity.Order;
+import com.revcart.entity.SalesRollup;
+import com.revcart.repository.OrderRepository;
+import com.revcart.repository.SalesRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    @Mock
+    private SalesRollupRepository rollupRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(salesRollupService, "flushBatch", 5000);
+    }
+
+    @Test
+    void testStatusChangeAppendsDeltasInTheCallersTransaction() {
+        Order order = order(LocalDateTime.of(2024, 5, 10, 9, 30), "100.00");
+
+        salesRollupService.recordStatusChange(order, Order.OrderStatus.PENDING, Order.OrderStatus.DELIVERED);
+
+        java.sql.Date may10 = java.sql.Date.valueOf(LocalDate.of(2024, 5, 10));
+        verify(jdbcTemplate).update(startsWith("INSERT INTO sales_rollup_deltas"), eq(may10), eq("PENDING"), eq(-1), eq(-10000L));
+        verify(jdbcTemplate).update(startsWith("INSERT INTO sales_rollup_deltas"), eq(may10), eq("DELIVERED"), eq(1), eq(10000L));
+    }
+
+    @Test
+    void testFlushCoalescesDeltasAndDeletesTheRowsItRead() throws Exception {
+        LocalDate may10 = LocalDate.of(2024, 5, 10);
+        stubDeltas(
+            new Object[]{7L, may10, "PENDING", 1L, 10000L},
+            new Object[]{8L, may10, "PENDING", -1L, -10000L},
+            new Object[]{9L, may10, "DELIVERED", 1L, 10000L});
+
+        salesRollupService.flush();
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        assertEquals(2, applyRows("INSERT INTO sales_rollups", ps));
+        verify(ps, times(2)).setString(3, "DELIVERED");
+        verify(ps, never()).setString(3, "PENDING");
+        verify(ps, times(2)).setLong(4, 1L);
+        verify(ps, times(2)).setLong(5, 10000L);
+        verify(ps).setDate(2, java.sql.Date.valueOf(may10));
+        verify(ps).setDate(2, java.sql.Date.valueOf(LocalDate.of(2024, 5, 1)));
+
+        PreparedStatement delete = mock(PreparedStatement.class);
+        assertEquals(3, applyRows("DELETE FROM sales_rollup_deltas", delete));
+        verify(delete).setLong(1, 7L);
+        verify(delete).setLong(1, 9L);
+        assertEquals(1L, salesRollupService.stats().get("flushes"));
+    }
+
+    @Test
+    void testUnchangedStatusRecordsNothing() {
+        Order order = order(LocalDateTime.now(), "10.00");
+
+        salesRollupService.recordStatusChange(order, Order.OrderStatus.SHIPPED, Order.OrderStatus.SHIPPED);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFailedFlushLeavesDeltasForNextRun() throws Exception {
+        stubDeltas(new Object[]{7L, LocalDate.now(), "PENDING", 1L, 2500L});
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO sales_rollups"), any(Collection.class), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class))).thenThrow(new QueryTimeoutException("lock wait timeout"));
+
+        salesRollupService.flush();
+
+        assertEquals(1L, salesRollupService.stats().get("flushFailures"));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("DELETE"), any(Collection.class), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void testDailySeriesFillsEmptyDaysAndSumsStatuses() {
+        LocalDate today = LocalDate.now();
+        when(rollupRepository.findByPeriodAndBucketStartGreaterThanEqual(SalesRollup.Period.DAY, today.minusDays(6)))
+            .thenReturn(List.of(
+                new SalesRollup(SalesRollup.Period.DAY, today, Order.OrderStatus.PENDING, 2, 5000),
+                new SalesRollup(SalesRollup.Period.DAY, today, Order.OrderStatus.DELIVERED, 1, 1000),
+                new SalesRollup(SalesRollup.Period.DAY, today.minusDays(3), Order.OrderStatus.CANCELLED, 4, 800)));
+
+        Map<LocalDate, SalesRollupService.Totals> daily = salesRollupService.daily(7);
+
+        assertEquals(new ArrayList<>(daily.keySet()).get(0), today.minusDays(6));
+        assertEquals(7, daily.size());
+        assertEquals(3, daily.get(today).getOrders());
+        assertEquals(6000, daily.get(today).getRevenuePaise());
+        assertEquals(2, daily.get(today).count(Order.OrderStatus.PENDING));
+        assertEquals(4, daily.get(today.minusDays(3)).count(Order.OrderStatus.CANCELLED));
+        assertEquals(0, daily.get(today.minusDays(1)).getOrders());
+    }
+
+    @Test
+    void testTotalSumsMonthBuckets() {
+        when(rollupRepository.findByPeriod(SalesRollup.Period.MONTH)).thenReturn(List.of(
+            new SalesRollup(SalesRollup.Period.MONTH, LocalDate.of(2024, 4, 1), Order.OrderStatus.DELIVERED, 10, 100000),
+            new SalesRollup(SalesRollup.Period.MONTH, LocalDate.of(2024, 5, 1), Order.OrderStatus.DELIVERED, 5, 40000),
+            new SalesRollup(SalesRollup.Period.MONTH, LocalDate.of(2024, 5, 1), Order.OrderStatus.PENDING, 3, 9000)));
+
+        SalesRollupService.Totals total = salesRollupService.total();
+
+        assertEquals(18, total.getOrders());
+        assertEquals(149000, total.getRevenuePaise());
+        assertEquals(15, total.count(Order.OrderStatus.DELIVERED));
+        assertEquals(0, total.count(Order.OrderStatus.SHIPPED));
+    }
+
+    @Test
+    void testBackfillRebuildsBucketsFromHistory() throws Exception {
+        LocalDate may10 = LocalDate.of(2024, 5, 10);
+        LocalDate may11 = LocalDate.of(2024, 5, 11);
+        when(orderRepository.summarizeByDayAndStatus()).thenReturn(List.of(
+            new DailyStatusTotals(may10, Order.OrderStatus.PENDING, 1L, new BigDecimal("10.00")),
+            new DailyStatusTotals(may10, Order.OrderStatus.DELIVERED, 2L, new BigDecimal("20.50")),
+            new DailyStatusTotals(may11, Order.OrderStatus.DELIVERED, 1L, new BigDecimal("5.00"))));
+        when(jdbcTemplate.queryForList("SELECT id FROM sales_rollup_deltas", Long.class)).thenReturn(List.of(3L, 4L));
+
+        int buckets = salesRollupService.backfill();
+
+        assertEquals(5, buckets);
+        verify(rollupRepository).deleteAllInBatch();
+        // Only the deltas visible alongside the summary are dropped; later ones stay for the flusher.
+        PreparedStatement delete = mock(PreparedStatement.class);
+        assertEquals(2, applyRows("DELETE FROM sales_rollup_deltas", delete));
+        verify(delete).setLong(1, 3L);
+        verify(delete).setLong(1, 4L);
+        verify(jdbcTemplate, never()).update("DELETE FROM sales_rollup_deltas");
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.ISOLATION_REPEATABLE_READ, definition.getValue().getIsolationLevel());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        assertEquals(5, applyRows("INSERT INTO sales_rollups", ps));
+        verify(ps).setLong(5, 2050L);
+        verify(ps).setLong(5, 2550L);
+        verify(ps, times(2)).setLong(5, 1000L);
+        verify(ps).setLong(4, 3L);
+    }
+
+    private Order order(LocalDateTime placedAt, String total) {
+        Order order = new Order(null, new BigDecimal(total), "1 Main St", "9876543210");
+        order.setId(1L);
+        order.setOrderDate(placedAt);
+        return order;
+    }
+
+    private void stubDeltas(Object[]... rows) throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn((Long) row[0]);
+                when(rs.getDate(2)).thenReturn(java.sql.Date.valueOf((LocalDate) row[1]));
+                when(rs.getString(3)).thenReturn((String) row[2]);
+                when(rs.getLong(4)).thenReturn((Long) row[3]);
+                when(rs.getLong(5)).thenReturn((Long) row[4]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT id"), any(RowCallbackHandler.class), eq(5000));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private int applyRows(String sqlPrefix, PreparedStatement ps) throws Exception {
+        ArgumentCaptor<Collection> rows = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter> setter =
+            ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(startsWith(sqlPrefix), rows.capture(), anyInt(), setter.capture());
+        for (Object row : rows.getValue()) {
+            setter.getValue().setValues(ps, row);
+        }
+        return rows.getValue().size();
+    }
+}
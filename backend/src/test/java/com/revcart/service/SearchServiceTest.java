@@ -1,5 +1,8 @@
 package com.revcart.service;
 
+import com.revcart.dto.FacetedSearchResult;
+import com.revcart.dto.SearchPage;
+import com.revcart.dto.Suggestion;
 import com.revcart.entity.Product;
 import com.revcart.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,11 +10,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,6 +27,9 @@ class SearchServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Spy
+    private ProductSearchIndex searchIndex = new ProductSearchIndex();
+
     @InjectMocks
     private SearchService searchService;
 
@@ -31,41 +39,84 @@ class SearchServiceTest {
     void setUp() {
         product = new Product("Apple", "fruits", new BigDecimal("50.00"), "kg", "apple.jpg", "Fresh apples");
         product.setId(1L);
+        searchIndex.index(product);
     }
 
     @Test
     void testSearchProducts() {
-        List<Product> products = new ArrayList<>(List.of(product));
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(new ArrayList<>(List.of(product)));
 
         List<Product> result = searchService.searchProducts("Apple");
 
         assertEquals(1, result.size());
         assertEquals("Apple", result.get(0).getName());
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void testSearchProductsByDescriptionPrefix() {
+        when(productRepository.findAllById(List.of(1L))).thenReturn(new ArrayList<>(List.of(product)));
+
+        List<Product> result = searchService.searchProducts("fre");
+
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void testRankedSearchPagination() {
+        Product greenApple = new Product("Green Apple", "fruits", new BigDecimal("60.00"), "kg", "green.jpg", "Crisp apples");
+        greenApple.setId(2L);
+        searchIndex.index(greenApple);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(new ArrayList<>(List.of(product)));
+        when(productRepository.findAllById(List.of(2L))).thenReturn(new ArrayList<>(List.of(greenApple)));
+
+        SearchPage first = searchService.rankedSearch("apple", 1, null);
+        SearchPage second = searchService.rankedSearch("apple", 1, first.getNextCursor());
+
+        assertEquals(2, first.getTotalHits());
+        assertEquals("Apple", first.getItems().get(0).getName());
+        assertNotNull(first.getNextCursor());
+        assertEquals("Green Apple", second.getItems().get(0).getName());
+        assertNull(second.getNextCursor());
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void testRankedSearchInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> searchService.rankedSearch("apple", 10, "not-a-cursor"));
+    }
+
+    @Test
+    void testSuggest() {
+        List<Suggestion> result = searchService.suggest("ap", 5);
+
+        assertEquals(1, result.size());
+        assertEquals("Apple", result.get(0).getText());
+        assertEquals("product", result.get(0).getType());
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     void testFilterByCategory() {
-        List<Product> products = new ArrayList<>(List.of(product));
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(new ArrayList<>(List.of(product)));
 
-        List<Product> result = searchService.filterByCategory("fruits");
+        List<Product> result = searchService.filterByCategory("Fruits");
 
         assertEquals(1, result.size());
         assertEquals("fruits", result.get(0).getCategory());
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, never()).findAll();
     }
 
     @Test
     void testFilterByPriceRange() {
-        List<Product> products = new ArrayList<>(List.of(product));
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(new ArrayList<>(List.of(product)));
 
         List<Product> result = searchService.filterByPriceRange(new BigDecimal("40.00"), new BigDecimal("60.00"));
 
         assertEquals(1, result.size());
-        verify(productRepository, times(1)).findAll();
+        assertTrue(searchService.filterByPriceRange(new BigDecimal("50.01"), new BigDecimal("60.00")).isEmpty());
+        verify(productRepository, never()).findAll();
     }
 
     @Test
@@ -81,33 +132,44 @@ class SearchServiceTest {
 
     @Test
     void testGetRecommendedProducts() {
-        List<Product> products = new ArrayList<>(List.of(product));
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(new ArrayList<>(List.of(product)));
 
         List<Product> result = searchService.getRecommendedProducts("fruits");
 
         assertNotNull(result);
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void testFacetedSearch() {
+        Product carrot = new Product("Carrot", "vegetables", new BigDecimal("25.00"), "kg", "carrot.jpg", "Fresh carrots");
+        carrot.setId(2L);
+        searchIndex.index(carrot);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(new ArrayList<>(List.of(product)));
+
+        FacetedSearchResult result = searchService.facetedSearch(null, new BigDecimal("20"), null, "fruits");
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(Map.of("fruits", 1, "vegetables", 1), result.getCategoryCounts());
+        verify(productRepository, never()).findAll();
     }
 
     @Test
     void testAdvancedSearch() {
-        List<Product> products = new ArrayList<>(List.of(product));
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(new ArrayList<>(List.of(product)));
 
         List<Product> result = searchService.advancedSearch("Apple", new BigDecimal("40.00"), new BigDecimal("60.00"), "fruits");
 
         assertEquals(1, result.size());
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, never()).findAll();
     }
 
     @Test
     void testSearchEmpty() {
-        when(productRepository.findAll()).thenReturn(new ArrayList<>());
-
         List<Product> result = searchService.searchProducts("NonExistent");
 
         assertTrue(result.isEmpty());
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, never()).findAll();
+        verify(productRepository, never()).findAllById(any());
     }
 }
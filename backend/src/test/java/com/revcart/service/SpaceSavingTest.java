@@ -0,0 +1,65 @@
+package com.revcart.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void testExactWhileUnderCapacity() {
+        SpaceSaving<String> sketch = new SpaceSaving<>(3);
+        sketch.offer("a", 5);
+        sketch.offer("b", 2);
+        sketch.offer("a", 1);
+
+        assertEquals(Map.of("a", 6L, "b", 2L), sketch.top(5));
+        assertEquals(List.of("a", "b"), new ArrayList<>(sketch.top(5).keySet()));
+        assertEquals(0, sketch.error("a"));
+    }
+
+    @Test
+    void testNewKeyReplacesSmallestCounterAndInheritsItsCount() {
+        SpaceSaving<String> sketch = new SpaceSaving<>(2);
+        sketch.offer("a", 10);
+        sketch.offer("b", 3);
+        sketch.offer("c", 1);
+
+        assertEquals(2, sketch.size());
+        assertEquals(Map.of("a", 10L, "c", 4L), sketch.counts());
+        assertEquals(3, sketch.error("c"));
+        assertEquals(14, sketch.total());
+    }
+
+    @Test
+    void testHeavyHittersSurviveALongTailInConstantMemory() {
+        SpaceSaving<Integer> sketch = new SpaceSaving<>(20);
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 5 == 0) sketch.offer(-1, 1);
+            else if (i % 7 == 0) sketch.offer(-2, 1);
+            else sketch.offer(random.nextInt(5_000), 1);
+        }
+
+        assertEquals(20, sketch.size());
+        List<Integer> top = new ArrayList<>(sketch.top(2).keySet());
+        assertEquals(List.of(-1, -2), top);
+        assertTrue(sketch.counts().get(-1) >= 4_000);
+        assertTrue(sketch.counts().get(-1) - sketch.error(-1) <= 4_000);
+    }
+
+    @Test
+    void testIgnoresNonPositiveWeights() {
+        SpaceSaving<String> sketch = new SpaceSaving<>(2);
+        sketch.offer("a", 0);
+        sketch.offer("b", -3);
+
+        assertEquals(0, sketch.size());
+        assertEquals(0, sketch.total());
+    }
+}
@@ -0,0 +1,59 @@
+package com.revcart.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionTrieTest {
+
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new SuggestionTrie(3);
+        trie.adjust("Apple", SuggestionTrie.PRODUCT, 1);
+        trie.adjust("Apricot", SuggestionTrie.PRODUCT, 5);
+        trie.adjust("Green Apple", SuggestionTrie.PRODUCT, 2);
+        trie.adjust("Banana", SuggestionTrie.PRODUCT, 1);
+    }
+
+    @Test
+    void testLookupOrdersByWeight() {
+        assertEquals(List.of("Apricot", "Green Apple", "Apple"), texts("ap"));
+        assertEquals(List.of("Green Apple", "Apple"), texts("appl"));
+        assertEquals(List.of("Banana"), texts("b"));
+        assertTrue(texts("x").isEmpty());
+    }
+
+    @Test
+    void testLookupMatchesWordStartsAndPhrases() {
+        assertEquals(List.of("Green Apple"), texts("green ap"));
+        assertTrue(texts("reen").isEmpty());
+    }
+
+    @Test
+    void testAdjustReordersAndRemoves() {
+        trie.adjust("Apple", SuggestionTrie.PRODUCT, 10);
+        assertEquals("Apple", texts("ap").get(0));
+
+        trie.adjust("Apricot", SuggestionTrie.PRODUCT, -5);
+        assertEquals(List.of("Apple", "Green Apple"), texts("ap"));
+        assertTrue(texts("apr").isEmpty());
+    }
+
+    @Test
+    void testTopNIsBounded() {
+        trie.adjust("Apple Juice", SuggestionTrie.PRODUCT, 1);
+        trie.adjust("apple", SuggestionTrie.CATEGORY, 1);
+
+        assertEquals(3, trie.lookup("a").size());
+    }
+
+    private List<String> texts(String prefix) {
+        return trie.lookup(prefix).stream().map(SuggestionTrie.Completion::getText).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,81 @@
+package com.revcart.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex trigramIndex;
+
+    @BeforeEach
+    void setUp() {
+        trigramIndex = new TrigramIndex();
+        trigramIndex.add("banana");
+        trigramIndex.add("broccoli");
+        trigramIndex.add("bread");
+    }
+
+    @Test
+    void testMatchWithinEditDistance() {
+        assertEquals(Map.of("banana", 1), trigramIndex.match("bananna", 2));
+        assertEquals(Map.of("broccoli", 1), trigramIndex.match("brocoli", 2));
+        assertEquals(Map.of("bread", 0), trigramIndex.match("bread", 1));
+    }
+
+    @Test
+    void testNoMatchBeyondEditDistance() {
+        assertTrue(trigramIndex.match("bnaan", 1).isEmpty());
+        assertTrue(trigramIndex.match("cheese", 2).isEmpty());
+    }
+
+    @Test
+    void testBandedDistanceAgreesWithFullDistance() {
+        Random random = new Random(42);
+        for (int n = 0; n < 2000; n++) {
+            String a = randomWord(random);
+            String b = randomWord(random);
+            int max = random.nextInt(4);
+            assertEquals(Math.min(fullDistance(a, b), max + 1), TrigramIndex.boundedDistance(a, b, max), a + " vs " + b);
+        }
+        assertEquals(3, TrigramIndex.boundedDistance("milk", "silken", 2));
+        assertEquals(2, TrigramIndex.boundedDistance("tomato", "tomatoes", 2));
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = random.nextInt(8);
+        for (int i = 0; i < length; i++) word.append((char) ('a' + random.nextInt(3)));
+        return word.toString();
+    }
+
+    private static int fullDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    @Test
+    void testRemove() {
+        trigramIndex.remove("banana");
+
+        assertTrue(trigramIndex.match("banana", 1).isEmpty());
+    }
+
+    @Test
+    void testBoundedDistance() {
+        assertEquals(3, TrigramIndex.boundedDistance("kitten", "sitting", 3));
+        assertEquals(2, TrigramIndex.boundedDistance("kitten", "sitting", 1));
+    }
+}